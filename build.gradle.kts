@@ -1,7 +1,9 @@
 plugins {
     id("java")
+    id("java-test-fixtures")
     id("application")
     alias(libs.plugins.shadow)
+    alias(libs.plugins.jmh)
 }
 
 group = "org.glavo"
@@ -20,6 +22,10 @@ dependencies {
 
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+
+    // Builders of contexts and programs shared by the tests and the benchmarks
+    testFixturesImplementation(libs.jline)
+    jmhImplementation(testFixtures(project))
 }
 
 application {
@@ -40,6 +46,37 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// ./gradlew jmh -PjmhIncludes=MeowParserBenchmark
+jmh {
+    jmhVersion = libs.versions.jmh
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+// ./gradlew generateBenchmarkProgram -Pstatements=10000 -Pdepth=8 -Pidentifiers=256 -Pseed=1
+val generateBenchmarkProgram by tasks.registering(JavaExec::class) {
+    val output = layout.buildDirectory.file("benchmark/program.docx")
+
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "org.glavo.meow.bench.MeowProgramGenerator"
+    outputs.file(output)
+    outputs.upToDateWhen { false }
+
+    doFirst {
+        output.get().asFile.parentFile.mkdirs()
+    }
+
+    args(
+        "-n", providers.gradleProperty("statements").getOrElse("1000"),
+        "-d", providers.gradleProperty("depth").getOrElse("4"),
+        "-i", providers.gradleProperty("identifiers").getOrElse("32"),
+        "-s", providers.gradleProperty("seed").getOrElse("0"),
+        "-o", output.get().asFile.absolutePath,
+    )
+}
+
 val meow by tasks.registering {
     val headerFile = file("src/main/header/header.sh")
     val jarFile = file("meow.jar")
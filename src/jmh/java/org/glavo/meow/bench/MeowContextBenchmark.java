@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.bench;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowFixtures;
+import org.glavo.meow.MeowScope;
+import org.glavo.meow.value.MeowIntegerValue;
+import org.glavo.meow.value.MeowValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.glavo.meow.MeowFixtures.symbol;
+
+// Looks up variables from the innermost of `depth` nested frames, each with a parameter slot of its own.
+// The global is bound in the root frame, the local in the innermost one.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MeowContextBenchmark {
+    @Param({"1", "4", "16", "64"})
+    public int depth;
+
+    private Meow global;
+    private Meow local;
+    private MeowContext context;
+
+    @Setup
+    public void setup() {
+        global = symbol(0x200000);
+        local = symbol(0x200001);
+
+        MeowContext root = MeowFixtures.newContext();
+        root.setValue(global, MeowIntegerValue.of(1));
+
+        context = root;
+        for (int i = 0; i < depth; i++) {
+            Meow parameter = i == depth - 1 ? local : symbol(0x200100 + i);
+            context = new MeowContext(context, MeowScope.of(List.of(parameter)), new MeowValue[]{MeowIntegerValue.of(i)});
+        }
+    }
+
+    @Benchmark
+    public MeowValue global() {
+        return context.getValue(global);
+    }
+
+    @Benchmark
+    public MeowValue local() {
+        return context.getValue(local);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.bench;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.value.MeowArithmeticOperator;
+import org.glavo.meow.value.MeowComparisonOperator;
+import org.glavo.meow.value.MeowIntegerValue;
+import org.glavo.meow.value.MeowLambda;
+import org.glavo.meow.value.MeowValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.glavo.meow.MeowFixtures.*;
+
+// Calls a recursive lambda:
+//   let fib (lambda n (((less n 2) (lambda () (add (fib (subtract n 1)) (fib (subtract n 2)))) (lambda () n))))
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeowLambdaBenchmark {
+    @Param({"10", "20"})
+    public int n;
+
+    private MeowContext context;
+    private MeowLambda fib;
+    private List<MeowValue> args;
+
+    @Setup
+    public void setup() {
+        Meow fibName = symbol(0x300000);
+        Meow parameter = symbol(0x300001);
+        MeowExpression none = new MeowExpressionList(List.of());
+
+        context = newContext();
+        context.evalParagraph(let(fibName, lambda(id(parameter), list(list(
+                call(MeowComparisonOperator.LESS, id(parameter), integer(2)),
+                lambda(none, call(MeowArithmeticOperator.ADD,
+                        list(id(fibName), call(MeowArithmeticOperator.SUBTRACT, id(parameter), integer(1))),
+                        list(id(fibName), call(MeowArithmeticOperator.SUBTRACT, id(parameter), integer(2))))),
+                lambda(none, id(parameter)))))));
+
+        fib = (MeowLambda) context.getValue(fibName);
+        args = List.of(MeowIntegerValue.of(n));
+    }
+
+    @Benchmark
+    public MeowValue fib() {
+        return fib.applyValues(context, args);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.bench;
+
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowFixtures;
+import org.glavo.meow.MeowHighlight;
+import org.glavo.meow.MeowRun;
+import org.glavo.meow.MeowUnderline;
+import org.glavo.meow.value.MeowBuiltinFunction;
+import org.glavo.meow.value.MeowIntegerValue;
+import org.glavo.meow.value.MeowText;
+import org.glavo.meow.value.MeowValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Renders values with print to a terminal that drops its output
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MeowPrintBenchmark {
+    @Param({"plain", "styled", "integer"})
+    public String content;
+
+    private MeowContext context;
+    private List<MeowValue> args;
+
+    @Setup
+    public void setup() {
+        context = MeowFixtures.newContext();
+        args = switch (content) {
+            case "plain" -> List.of(MeowText.of("The quick brown fox jumps over the lazy dog"));
+            case "styled" -> {
+                List<MeowRun> runs = new ArrayList<>();
+                for (String word : "The quick brown fox jumps over the lazy dog".split(" ")) {
+                    runs.add(new MeowRun(word + " ", runs.size() % 2 == 0, runs.size() % 3 == 0,
+                            runs.size() % 4 == 0 ? MeowUnderline.SINGLE : MeowUnderline.NONE,
+                            0x100000 * runs.size(), MeowHighlight.NONE, null, null, List.of()));
+                }
+                yield List.of(MeowText.of(runs));
+            }
+            case "integer" -> List.of(MeowIntegerValue.of(123456789));
+            default -> throw new IllegalArgumentException(content);
+        };
+    }
+
+    @Benchmark
+    public MeowValue print() {
+        return MeowBuiltinFunction.PRINT.applyValues(context, args);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.bench;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowHighlight;
+import org.glavo.meow.MeowRun;
+import org.glavo.meow.MeowUnderline;
+import org.glavo.meow.value.MeowArithmeticOperator;
+import org.glavo.meow.value.MeowBuiltinFunction;
+import org.glavo.meow.value.MeowBuiltinMacro;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Generates Meow programs for the benchmarks, so that results can be reproduced without hand-made documents.
+//
+// A program is a sequence of `let` statements whose values are arithmetic expressions nested `depth` levels deep,
+// over integer literals and the variables defined before, with a `print` every 8 statements.
+// `identifiers` is the number of distinct variables, and the keywords are spelled in several ways.
+// The same options and seed always give the same program.
+public final class MeowProgramGenerator {
+    private static final String USAGE = "Usage: MeowProgramGenerator [-n <statements>] [-d <depth>] [-i <identifiers>] [-s <seed>] -o <output.docx>";
+
+    private static final List<String> KEYWORDS = List.of("meow", "Meow", "MEOW", "喵", "にゃん", "miau", " nya ");
+    private static final List<MeowArithmeticOperator> OPERATORS = List.of(MeowArithmeticOperator.ADD, MeowArithmeticOperator.SUBTRACT);
+
+    private static final int IDENTIFIER_COLOR = 0x100000;
+    private static final double IDENTIFIER_SIZE = 12;
+    private static final int LITERAL_COLOR = 0x808080;
+
+    private final Random random;
+    private final int depth;
+    private final int identifiers;
+    private int defined;
+
+    private MeowProgramGenerator(int depth, int identifiers, long seed) {
+        if (depth < 0 || identifiers <= 0) {
+            throw new IllegalArgumentException("Invalid depth " + depth + " or number of identifiers " + identifiers);
+        }
+        this.random = new Random(seed);
+        this.depth = depth;
+        this.identifiers = identifiers;
+    }
+
+    // Every element is the runs of one paragraph, as the document readers produce them
+    public static List<List<MeowRun>> generate(int statements, int depth, int identifiers, long seed) {
+        MeowProgramGenerator generator = new MeowProgramGenerator(depth, identifiers, seed);
+        List<List<MeowRun>> paragraphs = new ArrayList<>(statements);
+        for (int i = 0; i < statements; i++) {
+            List<MeowRun> runs = new ArrayList<>();
+            if (i % 8 == 7) {
+                generator.print(runs);
+            } else {
+                generator.let(runs, i % identifiers);
+            }
+            paragraphs.add(runs);
+        }
+        return paragraphs;
+    }
+
+    public static void write(List<List<MeowRun>> paragraphs, OutputStream output) throws IOException {
+        try (XWPFDocument document = new XWPFDocument()) {
+            for (List<MeowRun> runs : paragraphs) {
+                XWPFParagraph paragraph = document.createParagraph();
+                for (MeowRun run : runs) {
+                    XWPFRun target = paragraph.createRun();
+                    target.setText(run.text());
+                    target.setItalic(run.italic());
+                    target.setColor("%06X".formatted(run.color()));
+                    if (run.highlightColor() != MeowHighlight.NONE) {
+                        target.setTextHighlightColor(run.highlightColor().getXmlValue());
+                    }
+                    if (run.fontSize() != null) {
+                        target.setFontSize(run.fontSize());
+                    }
+                }
+            }
+            document.write(output);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int statements = 1000;
+        int depth = 4;
+        int identifiers = 32;
+        long seed = 0;
+        Path output = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-n" -> statements = Integer.parseInt(args[i + 1]);
+                case "-d" -> depth = Integer.parseInt(args[i + 1]);
+                case "-i" -> identifiers = Integer.parseInt(args[i + 1]);
+                case "-s" -> seed = Long.parseLong(args[i + 1]);
+                case "-o" -> output = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException(USAGE);
+            }
+        }
+        if (output == null || args.length % 2 != 0) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        try (OutputStream stream = Files.newOutputStream(output)) {
+            write(generate(statements, depth, identifiers, seed), stream);
+        }
+    }
+
+    private void let(List<MeowRun> runs, int identifier) {
+        symbol(runs, MeowBuiltinMacro.LET.getMeow());
+        runs.add(identifier(identifier));
+        expression(runs, 0, depth);
+        defined = Math.max(defined, identifier + 1);
+    }
+
+    private void print(List<MeowRun> runs) {
+        symbol(runs, MeowBuiltinFunction.PRINT.getMeow());
+        leaf(runs, 0);
+    }
+
+    // (operator <expression> <leaf>), brackets on every level have a color of their own
+    private void expression(List<MeowRun> runs, int level, int remaining) {
+        if (remaining == 0) {
+            leaf(runs, level);
+            return;
+        }
+
+        MeowRun bracket = bracket(level);
+        runs.add(bracket);
+        symbol(runs, OPERATORS.get(random.nextInt(OPERATORS.size())).getMeow());
+        expression(runs, level + 1, remaining - 1);
+        leaf(runs, level + 1);
+        runs.add(bracket);
+    }
+
+    private void leaf(List<MeowRun> runs, int level) {
+        if (defined > 0 && random.nextBoolean()) {
+            runs.add(identifier(random.nextInt(defined)));
+        } else {
+            MeowRun bracket = bracket(level);
+            runs.add(bracket);
+            symbol(runs, MeowBuiltinMacro.INTEGER.getMeow());
+            runs.add(run(false, LITERAL_COLOR, MeowHighlight.NONE, (double) (1 + random.nextInt(64))));
+            runs.add(bracket);
+        }
+    }
+
+    private MeowRun bracket(int level) {
+        return run(true, level + 1, MeowHighlight.NONE, null);
+    }
+
+    private MeowRun identifier(int index) {
+        return run(false, IDENTIFIER_COLOR + index % identifiers, MeowHighlight.NONE, IDENTIFIER_SIZE);
+    }
+
+    private void symbol(List<MeowRun> runs, Meow meow) {
+        runs.add(run(meow.isBracket(), meow.getColor(), meow.getHighlightColor(), meow.getFontSize()));
+    }
+
+    private MeowRun run(boolean italic, int color, MeowHighlight highlight, Double fontSize) {
+        String text = KEYWORDS.get(random.nextInt(KEYWORDS.size()));
+        return new MeowRun(text, italic, false, MeowUnderline.NONE, color, highlight, null, fontSize, List.of());
+    }
+}
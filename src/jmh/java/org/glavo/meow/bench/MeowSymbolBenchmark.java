@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.bench;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowRun;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Classifies and interns every run of a generated program, plus runs that are not keywords
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeowSymbolBenchmark {
+    @Param({"8", "256"})
+    public int identifiers;
+
+    private MeowRun[] runs;
+
+    @Setup
+    public void setup() {
+        List<MeowRun> all = new ArrayList<>();
+        for (List<MeowRun> paragraph : MeowProgramGenerator.generate(1000, 4, identifiers, 0)) {
+            all.addAll(paragraph);
+            all.add(MeowRun.of("Some text that is not a keyword"));
+        }
+        runs = all.toArray(new MeowRun[0]);
+    }
+
+    @Benchmark
+    public void of(Blackhole blackhole) {
+        for (MeowRun run : runs) {
+            blackhole.consume(Meow.of(run));
+        }
+    }
+}
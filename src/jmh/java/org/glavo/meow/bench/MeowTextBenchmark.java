@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.bench;
+
+import org.glavo.meow.MeowHighlight;
+import org.glavo.meow.MeowRun;
+import org.glavo.meow.MeowUnderline;
+import org.glavo.meow.value.MeowText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Builds a text from many pieces, alternating between two styles
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeowTextBenchmark {
+    @Param({"16", "1024"})
+    public int pieces;
+
+    private MeowText plain;
+    private MeowText styled;
+
+    @Setup
+    public void setup() {
+        plain = MeowText.of("Hello, ");
+        styled = MeowText.of(List.of(new MeowRun("World! ", false, true, MeowUnderline.NONE, 0xFF0000, MeowHighlight.YELLOW, null, null, List.of())));
+    }
+
+    @Benchmark
+    public MeowText append() {
+        MeowText text = plain;
+        for (int i = 1; i < pieces; i++) {
+            text = text.concat(i % 2 == 0 ? plain : styled);
+        }
+        return text;
+    }
+
+    @Benchmark
+    public MeowText prepend() {
+        MeowText text = plain;
+        for (int i = 1; i < pieces; i++) {
+            text = (i % 2 == 0 ? plain : styled).concat(text);
+        }
+        return text;
+    }
+}
@@ -1,2 +1,21 @@
 #!/usr/bin/env bash
-exec java -jar "${BASH_SOURCE[0]}" "$@"
+self="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)/$(basename "${BASH_SOURCE[0]}")"
+
+# The archive written by `meow --train-cds`, the JVM falls back to loading classes normally if it does not fit
+cds=()
+if [ -f "$self.jsa" ]; then
+  cds=(-XX:SharedArchiveFile="$self.jsa" -Xshare:auto -Xlog:cds=off -Xlog:cds+dynamic=off)
+fi
+
+# Single documents are forwarded to `meow --daemon` while it is listening
+sock="${MEOW_SOCKET:-${TMPDIR:-/tmp}/meow-$(id -un).sock}"
+# The client exits with 75 if the socket is stale, the document is run below by a JVM with the full JIT then
+if [ $# -eq 1 ] && [ -f "$1" ] && [ -S "$sock" ]; then
+  MEOW_SOCKET="$sock" COLUMNS="${COLUMNS:-$(tput cols 2>/dev/null || echo 80)}" \
+    java -XX:TieredStopAtLevel=1 "${cds[@]}" -cp "$self" org.glavo.meow.Main --client "$1"
+  status=$?
+  if [ $status -ne 75 ]; then
+    exit $status
+  fi
+fi
+exec java "${cds[@]}" -jar "$self" "$@"
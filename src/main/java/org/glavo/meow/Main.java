@@ -16,27 +16,68 @@
  */
 package org.glavo.meow;
 
+import org.glavo.meow.ast.MeowExpression;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 public class Main {
     public static void main(String[] args) throws IOException {
+        // Jars built by `meow compile` carry their program, and only run that, whatever the arguments are
+        List<MeowExpression> program = MeowJarCompiler.loadEmbeddedProgram();
+        if (program == null) {
+            // The profiler reads this when it is loaded, so it has to be set before anything is evaluated
+            if (args.length > 0 && args[0].equals("--profile")) {
+                System.setProperty("meow.profile", "true");
+                args = Arrays.copyOfRange(args, 1, args.length);
+            }
+            if (args.length > 0 && args[0].equals("compile")) {
+                MeowJarCompiler.main(Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
+            if (args.length > 0 && args[0].equals("batch")) {
+                MeowBatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
+            if (args.length > 0 && args[0].equals("--train-cds")) {
+                MeowCdsTrainer.main(Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
+            if (args.length > 0 && args[0].equals("--daemon")) {
+                MeowDaemon.main(Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
+            // meow.sh forwards single documents here while a daemon is listening. The client runs with C1 only,
+            // so when no daemon answers meow.sh runs the document itself in a JVM of its own.
+            if (args.length == 2 && args[0].equals("--client")) {
+                int status = MeowDaemon.forward(Path.of(args[1]));
+                System.exit(status >= 0 ? status : MeowDaemon.NO_DAEMON_STATUS);
+            }
+        }
+
         try (Terminal terminal = TerminalBuilder.builder()
                 .system(true)
-                .build()) {
+                .build();
+             MeowOutput output = new MeowOutput(terminal.writer())) {
             try {
-                for (String arg : args) {
-                    new MeowContext(terminal).evalFile(Path.of(arg));
+                if (program != null) {
+                    new MeowContext(terminal, output).evalProgram(program);
+                } else {
+                    // Documents share the output, so only one writer thread is ever started
+                    for (String arg : args) {
+                        new MeowContext(terminal, output).evalFile(Path.of(arg));
+                    }
                 }
             } finally {
+                // Through the output, so that the map comes after everything the documents printed
                 if (Meow.DEBUG) {
-                    terminal.writer().println(MeowSymbolMap.INSTANCE);
+                    output.println(MeowSymbolMap.INSTANCE.toString());
                 }
             }
-
         }
     }
 }
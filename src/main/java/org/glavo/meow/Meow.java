@@ -16,13 +16,15 @@
  */
 package org.glavo.meow;
 
-import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.STHighlightColor;
-
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Locale;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class Meow {
     public static final boolean DEBUG = "true".equals(System.getProperty("meow.debug"));
@@ -53,26 +55,78 @@ public final class Meow {
             "miao" // it_IT
     );
 
-    public static Meow of(XWPFRun term) {
+    // The keywords as they are usually typed, so that the common case needs neither trim() nor toLowerCase()
+    private static final Set<String> MEOW_EXACT = MEOW.stream()
+            .flatMap(it -> Stream.of(
+                    it,
+                    it.toUpperCase(Locale.ROOT),
+                    it.substring(0, 1).toUpperCase(Locale.ROOT) + it.substring(1)))
+            .collect(Collectors.toUnmodifiableSet());
+
+    private static final int MAX_KEYWORD_LENGTH = MEOW.stream().mapToInt(String::length).max().orElse(0);
+
+    public static boolean isKeyword(String text) {
+        if (MEOW_EXACT.contains(text)) {
+            return true;
+        }
+
+        // Both return the string itself if there is nothing to change
+        String trimmed = text.trim();
+        return !trimmed.isEmpty()
+               && trimmed.length() <= MAX_KEYWORD_LENGTH
+               && MEOW.contains(trimmed.toLowerCase(Locale.ROOT));
+    }
+
+    // All Meows are interned, so two Meows are the same identifier if and only if they are the same object.
+    // The table only holds them weakly, so that a long-lived daemon does not keep the symbols of every document
+    // it has run. A symbol that nothing refers to anymore cannot be compared with, so it is safe to create anew.
+
+    private record Key(long style, String font) {
+    }
+
+    private static final class Ref extends WeakReference<Meow> {
+        final Key key;
+
+        Ref(Meow meow, Key key) {
+            super(meow, QUEUE);
+            this.key = key;
+        }
+    }
+
+    private static final ReferenceQueue<Meow> QUEUE = new ReferenceQueue<>();
+    private static final ConcurrentHashMap<Key, Ref> SYMBOLS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    public static Meow of(MeowRun term) {
         if (term == null) {
             return null;
         }
 
-        if (!term.getEmbeddedPictures().isEmpty()) {
+        if (!term.pictures().isEmpty()) {
             return null;
         }
 
-        if (MEOW.contains(term.text().trim().toLowerCase(Locale.ROOT))) {
-            return new Meow(term);
+        if (isKeyword(term.text())) {
+            return of(
+                    term.text(),
+                    term.italic(),
+                    term.underline(),
+                    term.color(),
+                    term.highlightColor(),
+                    term.bold(),
+                    term.font(),
+                    term.fontSize()
+            );
         } else {
             return null;
         }
     }
 
-    public static Meow builtin(int color, STHighlightColor.Enum highlightColor) {
-        return new Meow(
+    public static Meow builtin(int color, MeowHighlight highlightColor) {
+        return of(
+                "",
                 false,
-                UnderlinePatterns.NONE,
+                MeowUnderline.NONE,
                 color,
                 highlightColor,
                 false,
@@ -81,28 +135,79 @@ public final class Meow {
         );
     }
 
+    public static Meow of(String rawName, boolean isBracket, MeowUnderline underline, int color, MeowHighlight highlightColor, boolean isBold, String font, Double fontSize) {
+        Key key = new Key(packStyle(isBracket, underline, color, highlightColor, isBold, fontSize), font);
+        Ref ref = SYMBOLS.get(key);
+        Meow meow = ref != null ? ref.get() : null;
+        if (meow != null) {
+            return meow;
+        }
+
+        expungeStaleSymbols();
+        meow = new Meow(
+                NEXT_ID.getAndIncrement(), key.style(),
+                rawName, isBracket, underline, color, highlightColor, isBold, font, fontSize
+        );
+        Ref created = new Ref(meow, key);
+        while (true) {
+            Ref existing = SYMBOLS.putIfAbsent(key, created);
+            if (existing == null) {
+                return meow;
+            }
+            Meow other = existing.get();
+            if (other != null) {
+                return other;
+            }
+            if (SYMBOLS.replace(key, existing, created)) {
+                return meow;
+            }
+        }
+    }
+
+    private static void expungeStaleSymbols() {
+        Reference<? extends Meow> ref;
+        while ((ref = QUEUE.poll()) != null) {
+            Ref stale = (Ref) ref;
+            SYMBOLS.remove(stale.key, stale);
+        }
+    }
+
+    // Layout of the style key:
+    //   bits  0..23  color
+    //   bits 24..28  highlight color
+    //   bits 29..33  underline
+    //   bit  34      bracket (italic)
+    //   bit  35      bold
+    //   bits 36..63  font size in half points plus one, or zero if not set
+    // Word stores font sizes in half points, so they are always encoded exactly.
+    private static long packStyle(boolean isBracket, MeowUnderline underline, int color, MeowHighlight highlightColor, boolean isBold, Double fontSize) {
+        long style = color & 0xFFFFFFL;
+        style |= (long) highlightColor.ordinal() << 24;
+        style |= (long) underline.ordinal() << 29;
+        style |= isBracket ? 1L << 34 : 0;
+        style |= isBold ? 1L << 35 : 0;
+        if (fontSize != null) {
+            style |= (Math.min(Math.max(Math.round(fontSize * 2), 0), 0xFFF_FFFEL) + 1) << 36;
+        }
+        return style;
+    }
+
+    private final int id;
+    private final long styleKey;
     private final String rawName;
     private final boolean isBracket;
-    private final UnderlinePatterns underline;
+    private final MeowUnderline underline;
     private final int color;
-    private final STHighlightColor.Enum highlightColor;
+    private final MeowHighlight highlightColor;
     private final boolean isBold;
     private final String font;
     private final Double fontSize;
 
-    public Meow(XWPFRun term) {
-        this.rawName = term.text();
-        this.isBracket = term.isItalic();
-        this.color = term.getColor() == null ? 0 : Integer.parseInt(term.getColor(), 16);
-        this.highlightColor = term.getTextHighlightColor();
-        this.isBold = term.isBold();
-        this.underline = term.getUnderline();
-        this.font = term.getFontFamily();
-        this.fontSize = term.getFontSizeAsDouble();
-    }
-
-    public Meow(boolean isBracket, UnderlinePatterns underline, int color, STHighlightColor.Enum highlightColor, boolean isBold, String font, Double fontSize) {
-        this.rawName = "";
+    private Meow(int id, long styleKey,
+                 String rawName, boolean isBracket, MeowUnderline underline, int color, MeowHighlight highlightColor, boolean isBold, String font, Double fontSize) {
+        this.id = id;
+        this.styleKey = styleKey;
+        this.rawName = rawName;
         this.isBracket = isBracket;
         this.underline = underline;
         this.color = color;
@@ -112,12 +217,23 @@ public final class Meow {
         this.fontSize = fontSize;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    public long getStyleKey() {
+        return styleKey;
+    }
+
+    public String getRawName() {
+        return rawName;
+    }
 
     public boolean isBracket() {
         return isBracket;
     }
 
-    public UnderlinePatterns getUnderline() {
+    public MeowUnderline getUnderline() {
         return underline;
     }
 
@@ -125,10 +241,14 @@ public final class Meow {
         return color;
     }
 
-    public STHighlightColor.Enum getHighlightColor() {
+    public MeowHighlight getHighlightColor() {
         return highlightColor;
     }
 
+    public boolean isBold() {
+        return isBold;
+    }
+
     public String getFont() {
         return font;
     }
@@ -139,19 +259,12 @@ public final class Meow {
 
     @Override
     public int hashCode() {
-        return Objects.hash(isBracket, color, isBold, highlightColor, underline, font, fontSize);
+        return id;
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj instanceof Meow that
-               && this.isBracket == that.isBracket
-               && this.color == that.color
-               && this.highlightColor == that.highlightColor
-               && this.isBold == that.isBold
-               && this.underline == that.underline
-               && Objects.equals(this.font, that.font)
-               && Objects.equals(this.fontSize, that.fontSize);
+        return this == obj;
     }
 
     @Override
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import kala.ansi.AnsiString;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Renders styled text with ANSI escapes.
+//
+// The escapes around a span only depend on its style, so they are computed once per style by rendering
+// a placeholder character through kala-ansi and cutting the result around it.
+public final class MeowAnsiRenderer {
+    private static final int MAX_CACHED_STYLES = 1024;
+    private static final char PLACEHOLDER = '\uE000';
+
+    private record Escapes(String prefix, String suffix) {
+    }
+
+    // For renderings the placeholder cannot be cut out of, these styles are rendered every time
+    private static final Escapes UNCACHEABLE = new Escapes(null, null);
+
+    private static final ConcurrentHashMap<MeowStyle, Escapes> ESCAPES = new ConcurrentHashMap<>();
+
+    public static void appendText(StringBuilder builder, String text, MeowStyle style) {
+        if (text.isEmpty()) {
+            return;
+        }
+
+        Escapes escapes = escapesOf(style);
+        if (escapes == UNCACHEABLE) {
+            builder.append(render(text, style));
+        } else {
+            builder.append(escapes.prefix()).append(text).append(escapes.suffix());
+        }
+    }
+
+    private static Escapes escapesOf(MeowStyle style) {
+        Escapes escapes = ESCAPES.get(style);
+        if (escapes == null) {
+            String rendered = render(String.valueOf(PLACEHOLDER), style);
+            int index = rendered.indexOf(PLACEHOLDER);
+            escapes = index >= 0 && rendered.indexOf(PLACEHOLDER, index + 1) < 0
+                    ? new Escapes(rendered.substring(0, index), rendered.substring(index + 1))
+                    : UNCACHEABLE;
+
+            if (ESCAPES.size() >= MAX_CACHED_STYLES) {
+                ESCAPES.clear();
+            }
+            ESCAPES.put(style, escapes);
+        }
+        return escapes;
+    }
+
+    private static String render(String plain, MeowStyle style) {
+        var text = AnsiString.ofPlain(plain);
+        if (style.bold()) {
+            text = text.overlay(AnsiString.Bold.On);
+        }
+        if (style.underline() != MeowUnderline.NONE) {
+            text = text.overlay(AnsiString.Underlined.On);
+        }
+        int rgb = style.color();
+        if (rgb != 0) {
+            text = text.overlay(AnsiString.Color.True(rgb >> 16, (rgb >> 8) & 0xFF, rgb & 0xFF));
+        }
+        if (style.highlightColor() != MeowHighlight.NONE) {
+            AnsiString.Attribute backgroundColor = MeowUtils.attributeOf(style.highlightColor());
+            if (backgroundColor != null) {
+                text = text.overlay(backgroundColor);
+            }
+        }
+
+        // Why Kala Ansi unsupported Italic?
+        return style.italic() ? "\u001B[3m" + text + "\u001b[0m" : text.toString();
+    }
+
+    private MeowAnsiRenderer() {
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.jline.reader.LineReader;
+import org.jline.reader.LineReaderBuilder;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+// Runs many documents in one JVM.
+//
+// Documents are read, parsed and evaluated on a pool of worker threads, each in a context of its own, and their
+// output is collected in memory. It is written to the terminal in the order of the arguments, or with --unordered
+// as soon as a document is done. The time every document took and the throughput of the batch go to stderr.
+public final class MeowBatchRunner {
+    private static final String USAGE = "Usage: meow batch [-j <threads>] [--unordered] <directory | glob | document>...";
+
+    private record Result(int index, Path document, String output, Throwable failure, long nanos) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean ordered = true;
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-j") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--unordered")) {
+                ordered = false;
+            } else {
+                arguments.add(args[i]);
+            }
+        }
+        if (arguments.isEmpty() || threads <= 0) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        List<Path> documents = collect(arguments);
+        int failures;
+        try (Terminal terminal = TerminalBuilder.builder()
+                .system(true)
+                .build()) {
+            failures = run(terminal, documents, threads, ordered);
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Directories give the .docx files below them, patterns with glob characters the files matching them
+    public static List<Path> collect(List<String> arguments) throws IOException {
+        List<Path> documents = new ArrayList<>();
+        for (String argument : arguments) {
+            int glob = indexOfGlob(argument);
+            if (glob >= 0) {
+                int separator = argument.lastIndexOf('/', glob);
+                Path base = separator < 0 ? Path.of("") : Path.of(argument.substring(0, Math.max(separator, 1)));
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + argument);
+                // Without `**` a pattern only matches files as deep as it has segments below the base
+                String pattern = argument.substring(separator + 1);
+                int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/+").length;
+                try (Stream<Path> files = Files.walk(base, depth)) {
+                    files.filter(Files::isRegularFile).filter(matcher::matches).sorted().forEach(documents::add);
+                }
+            } else {
+                Path path = Path.of(argument);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> files = Files.walk(path)) {
+                        files.filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(".docx"))
+                                .sorted()
+                                .forEach(documents::add);
+                    }
+                } else {
+                    documents.add(path);
+                }
+            }
+        }
+        return documents;
+    }
+
+    private static int indexOfGlob(String argument) {
+        for (int i = 0; i < argument.length(); i++) {
+            char ch = argument.charAt(i);
+            if (ch == '*' || ch == '?' || ch == '[' || ch == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the number of documents that failed
+    public static int run(Terminal terminal, List<Path> documents, int threads, boolean ordered) {
+        // Documents reading input take turns on one reader
+        LineReader reader = LineReaderBuilder.builder().terminal(terminal).build();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("meow-batch-", 0).factory());
+        CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < documents.size(); i++) {
+            int index = i;
+            completion.submit(() -> evaluate(terminal, reader, index, documents.get(index)));
+        }
+
+        PrintWriter out = terminal.writer();
+        Result[] pending = new Result[documents.size()];
+        long[] latencies = new long[documents.size()];
+        int next = 0;
+        int failures = 0;
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                Result result = completion.take().get();
+                latencies[i] = result.nanos();
+                if (result.failure() != null) {
+                    failures++;
+                }
+                System.err.printf("%10.3f ms  %s%s%n", result.nanos() / 1e6, result.document(),
+                        result.failure() != null ? "  (failed)" : "");
+
+                if (ordered) {
+                    pending[result.index()] = result;
+                    while (next < pending.length && pending[next] != null) {
+                        write(out, pending[next]);
+                        pending[next++] = null;
+                    }
+                } else {
+                    write(out, result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        System.err.printf("%d documents, %d failed, in %.3f ms on %d threads: %.1f documents/s%n",
+                documents.size(), failures, elapsed / 1e6, threads, documents.size() / (elapsed / 1e9));
+        if (latencies.length > 0) {
+            System.err.printf("latency: p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    percentile(latencies, 50) / 1e6, percentile(latencies, 90) / 1e6,
+                    percentile(latencies, 99) / 1e6, latencies[latencies.length - 1] / 1e6);
+        }
+        return failures;
+    }
+
+    private static Result evaluate(Terminal terminal, LineReader reader, int index, Path document) {
+        StringWriter buffer = new StringWriter();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            new MeowContext(terminal, reader, MeowOutput.direct(new PrintWriter(buffer))).evalFile(document);
+        } catch (Exception | StackOverflowError e) {
+            failure = e;
+        }
+        return new Result(index, document, buffer.toString(), failure, System.nanoTime() - start);
+    }
+
+    private static void write(PrintWriter out, Result result) {
+        out.print(result.output());
+        if (result.failure() != null) {
+            out.println("meow: " + result.document() + ": " + result.failure());
+        }
+        out.flush();
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
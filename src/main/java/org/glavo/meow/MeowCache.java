@@ -0,0 +1,518 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.ast.MeowIdentifier;
+import org.glavo.meow.ast.MeowLambdaExpression;
+import org.glavo.meow.ast.MeowLocalIdentifier;
+import org.glavo.meow.ast.MeowRichText;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+// Caches parsed documents on disk, keyed by the SHA-256 of the format version, the reader and the document bytes.
+// A cache hit skips both POI and the parser. Entries hold unresolved parse trees.
+// The directory is kept below -Dmeow.cache.size bytes (64 MiB by default) by deleting the least recently used
+// entries after each write, reading an entry refreshes its modification time.
+public final class MeowCache {
+
+    private static final int MAGIC = 0x4D454F57; // "MEOW"
+    // Bump whenever the parser or the encoding of parse trees changes
+    private static final int VERSION = 2;
+
+    private static final int TAG_LIST = 0;
+    private static final int TAG_IDENTIFIER = 1;
+    private static final int TAG_RICH_TEXT = 2;
+
+    // Far deeper than any document nests its brackets, but well within the stack of the reader
+    private static final int MAX_DEPTH = 1024;
+
+    private static final long DEFAULT_MAX_SIZE = Long.getLong("meow.cache.size", 64L * 1024 * 1024);
+
+    private static final MeowCache DEFAULT = createDefault();
+
+    private static MeowCache createDefault() {
+        if ("false".equals(System.getProperty("meow.cache"))) {
+            return null;
+        }
+
+        String directory = System.getProperty("meow.cache.dir");
+        if (directory != null) {
+            return new MeowCache(Path.of(directory));
+        }
+
+        String cacheHome = System.getenv("XDG_CACHE_HOME");
+        Path base = cacheHome != null && !cacheHome.isBlank()
+                ? Path.of(cacheHome)
+                : Path.of(System.getProperty("user.home"), ".cache");
+        return new MeowCache(base.resolve("meow"));
+    }
+
+    // Returns null if the cache is disabled
+    public static MeowCache getDefault() {
+        return DEFAULT;
+    }
+
+    // Documents read by different readers may parse differently, so they never share an entry
+    public static String key(Path document, String reader) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+
+        digest.update((VERSION + "/" + reader + "\0").getBytes(StandardCharsets.UTF_8));
+
+        try (var input = Files.newInputStream(document)) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // The format of cache entries, also used for programs embedded by MeowJarCompiler
+    // Entries may be truncated or corrupted, so every length is checked against the bytes left
+    public static List<MeowExpression> read(InputStream input) throws IOException {
+        var dataInput = new DataInputStream(new ByteArrayInputStream(input.readAllBytes()));
+        if (dataInput.readInt() != MAGIC || dataInput.readInt() != VERSION) {
+            throw new IOException("Not a compiled Meow program, or compiled by another version");
+        }
+        return new Reader(dataInput).readProgram();
+    }
+
+    public static void write(OutputStream output, List<MeowExpression> program) throws IOException {
+        var dataOutput = new DataOutputStream(new BufferedOutputStream(output));
+        dataOutput.writeInt(MAGIC);
+        dataOutput.writeInt(VERSION);
+        new Writer(dataOutput).writeProgram(program);
+        dataOutput.flush();
+    }
+
+    private final Path directory;
+    private final long maxSize;
+
+    public MeowCache(Path directory) {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    public MeowCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public List<MeowExpression> load(String key) {
+        Path file = directory.resolve(key + ".meowc");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        List<MeowExpression> program;
+        try (var input = Files.newInputStream(file)) {
+            program = read(input);
+        } catch (IOException | RuntimeException e) {
+            // Broken or outdated entries are simply parsed again
+            if (MeowLog.ENABLED) {
+                MeowLog.CACHE.debug("Failed to read {}", file, e);
+            }
+            return null;
+        }
+        touch(file);
+        return program;
+    }
+
+    public void store(String key, List<MeowExpression> program) {
+        storeAtomically(key + ".meowc", output -> write(output, program));
+    }
+
+    // Other data derived from documents, such as scaled pictures, is kept next to the parsed documents
+    public byte[] loadData(String name) {
+        Path file = directory.resolve(name);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        byte[] data;
+        try {
+            data = Files.readAllBytes(file);
+        } catch (IOException e) {
+            if (MeowLog.ENABLED) {
+                MeowLog.CACHE.debug("Failed to read {}", file, e);
+            }
+            return null;
+        }
+        touch(file);
+        return data;
+    }
+
+    public void storeData(String name, byte[] data) {
+        storeAtomically(name, output -> output.write(data));
+    }
+
+    private interface Content {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    private void storeAtomically(String name, Content content) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, name, ".tmp");
+            try {
+                try (var output = Files.newOutputStream(temp)) {
+                    content.writeTo(output);
+                }
+                Files.move(temp, directory.resolve(name),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The cache is only an optimization, failing to write it must not break the script
+            if (MeowLog.ENABLED) {
+                MeowLog.CACHE.debug("Failed to write {}", directory.resolve(name), e);
+            }
+            return;
+        }
+        evict(name);
+    }
+
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            if (MeowLog.ENABLED) {
+                MeowLog.CACHE.debug("Failed to touch {}", file, e);
+            }
+        }
+    }
+
+    private record Entry(Path file, long size, FileTime lastModified) {
+    }
+
+    // Deletes the least recently used entries until the directory fits, never the entry just written
+    private void evict(String kept) {
+        var entries = new ArrayList<Entry>();
+        long total = 0;
+        try (var stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    // Deleted by another process in the meantime
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                // Temporary files belong to writers that are still running
+                if (attributes.isRegularFile() && !name.endsWith(".tmp")) {
+                    total += attributes.size();
+                    if (!name.equals(kept)) {
+                        entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (MeowLog.ENABLED) {
+                MeowLog.CACHE.debug("Failed to list {}", directory, e);
+            }
+            return;
+        }
+
+        if (total <= maxSize) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(Entry::lastModified));
+        for (Entry entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.file());
+                total -= entry.size();
+                if (MeowLog.ENABLED) {
+                    MeowLog.CACHE.debug("Evicted {}", entry.file());
+                }
+            } catch (IOException e) {
+                if (MeowLog.ENABLED) {
+                    MeowLog.CACHE.debug("Failed to evict {}", entry.file(), e);
+                }
+            }
+        }
+    }
+
+    private static final class Writer {
+        private final DataOutputStream output;
+        private final Map<Meow, Integer> symbols = new HashMap<>();
+
+        Writer(DataOutputStream output) {
+            this.output = output;
+        }
+
+        void writeProgram(List<MeowExpression> program) throws IOException {
+            writeVarInt(program.size());
+            for (MeowExpression expression : program) {
+                writeExpression(expression);
+            }
+        }
+
+        void writeExpression(MeowExpression expression) throws IOException {
+            switch (expression) {
+                case MeowExpressionList(List<MeowExpression> nodes) -> {
+                    output.writeByte(TAG_LIST);
+                    writeVarInt(nodes.size());
+                    for (MeowExpression node : nodes) {
+                        writeExpression(node);
+                    }
+                }
+                case MeowIdentifier(Meow meow) -> {
+                    output.writeByte(TAG_IDENTIFIER);
+                    writeSymbol(meow);
+                }
+                case MeowRichText(List<MeowRun> content) -> {
+                    output.writeByte(TAG_RICH_TEXT);
+                    writeVarInt(content.size());
+                    for (MeowRun run : content) {
+                        writeRun(run);
+                    }
+                }
+                case MeowLocalIdentifier local -> throw new IllegalArgumentException("Resolved expression: " + local);
+                case MeowLambdaExpression lambda -> throw new IllegalArgumentException("Resolved expression: " + lambda);
+            }
+        }
+
+        // Each symbol is written in full the first time it appears, and by index afterwards
+        void writeSymbol(Meow meow) throws IOException {
+            Integer index = symbols.get(meow);
+            if (index != null) {
+                writeVarInt(index);
+                return;
+            }
+
+            writeVarInt(symbols.size());
+            symbols.put(meow, symbols.size());
+
+            writeString(meow.getRawName());
+            output.writeBoolean(meow.isBracket());
+            output.writeByte(meow.getUnderline().ordinal());
+            output.writeInt(meow.getColor());
+            output.writeByte(meow.getHighlightColor().ordinal());
+            output.writeBoolean(meow.isBold());
+            writeNullableString(meow.getFont());
+            writeNullableDouble(meow.getFontSize());
+        }
+
+        void writeRun(MeowRun run) throws IOException {
+            writeString(run.text());
+            output.writeBoolean(run.italic());
+            output.writeBoolean(run.bold());
+            output.writeByte(run.underline().ordinal());
+            output.writeInt(run.color());
+            output.writeByte(run.highlightColor().ordinal());
+            writeNullableString(run.font());
+            writeNullableDouble(run.fontSize());
+            writeVarInt(run.pictures().size());
+            for (byte[] picture : run.pictures()) {
+                writeVarInt(picture.length);
+                output.write(picture);
+            }
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            output.write(bytes);
+        }
+
+        void writeNullableString(String value) throws IOException {
+            output.writeBoolean(value != null);
+            if (value != null) {
+                writeString(value);
+            }
+        }
+
+        void writeNullableDouble(Double value) throws IOException {
+            output.writeBoolean(value != null);
+            if (value != null) {
+                output.writeDouble(value);
+            }
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                output.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            output.writeByte(value);
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream input;
+        private final List<Meow> symbols = new ArrayList<>();
+
+        Reader(DataInputStream input) {
+            this.input = input;
+        }
+
+        List<MeowExpression> readProgram() throws IOException {
+            int size = readLength();
+            var program = new ArrayList<MeowExpression>();
+            for (int i = 0; i < size; i++) {
+                program.add(readExpression(0));
+            }
+            return program;
+        }
+
+        MeowExpression readExpression(int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new IOException("Expressions nested too deeply");
+            }
+            int tag = input.readUnsignedByte();
+            switch (tag) {
+                case TAG_LIST -> {
+                    int size = readLength();
+                    var nodes = new ArrayList<MeowExpression>();
+                    for (int i = 0; i < size; i++) {
+                        nodes.add(readExpression(depth + 1));
+                    }
+                    return new MeowExpressionList(nodes);
+                }
+                case TAG_IDENTIFIER -> {
+                    return new MeowIdentifier(readSymbol());
+                }
+                case TAG_RICH_TEXT -> {
+                    int size = readLength();
+                    var content = new ArrayList<MeowRun>();
+                    for (int i = 0; i < size; i++) {
+                        content.add(readRun());
+                    }
+                    return new MeowRichText(content);
+                }
+                default -> throw new IOException("Unknown expression tag: " + tag);
+            }
+        }
+
+        Meow readSymbol() throws IOException {
+            int index = readVarInt();
+            if (index >= 0 && index < symbols.size()) {
+                return symbols.get(index);
+            }
+            if (index != symbols.size()) {
+                throw new IOException("Invalid symbol index: " + index);
+            }
+
+            Meow meow = Meow.of(
+                    readString(),
+                    input.readBoolean(),
+                    MeowUnderline.ofOrdinal(input.readUnsignedByte()),
+                    input.readInt(),
+                    MeowHighlight.ofOrdinal(input.readUnsignedByte()),
+                    input.readBoolean(),
+                    readNullableString(),
+                    readNullableDouble()
+            );
+            symbols.add(meow);
+            return meow;
+        }
+
+        MeowRun readRun() throws IOException {
+            String text = readString();
+            boolean italic = input.readBoolean();
+            boolean bold = input.readBoolean();
+            MeowUnderline underline = MeowUnderline.ofOrdinal(input.readUnsignedByte());
+            int color = input.readInt();
+            MeowHighlight highlightColor = MeowHighlight.ofOrdinal(input.readUnsignedByte());
+            String font = readNullableString();
+            Double fontSize = readNullableDouble();
+
+            int pictureCount = readLength();
+            var pictures = new ArrayList<byte[]>();
+            for (int i = 0; i < pictureCount; i++) {
+                byte[] picture = new byte[readLength()];
+                input.readFully(picture);
+                pictures.add(picture);
+            }
+
+            return new MeowRun(text, italic, bold, underline, color, highlightColor, font, fontSize, List.copyOf(pictures));
+        }
+
+        String readString() throws IOException {
+            byte[] bytes = new byte[readLength()];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String readNullableString() throws IOException {
+            return input.readBoolean() ? readString() : null;
+        }
+
+        Double readNullableDouble() throws IOException {
+            return input.readBoolean() ? input.readDouble() : null;
+        }
+
+        // Counts of elements and bytes alike, each element takes at least one byte
+        int readLength() throws IOException {
+            int length = readVarInt();
+            if (length < 0 || length > input.available()) {
+                throw new IOException("Invalid length: " + length);
+            }
+            return length;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = input.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Trains a dynamic AppCDS archive for the launcher.
+//
+// `meow --train-cds [document...]` runs the documents, demo/HelloWorld.docx by default, in a child JVM that dumps
+// the classes it loaded into <jar>.jsa next to the jar when it exits. meow.sh maps that archive when it is present,
+// so POI, XMLBeans and JLine are not loaded and verified from scratch on every start.
+// The document cache is disabled during training, so the classes used for parsing end up in the archive too.
+// The archive is only valid for the jar it was trained with, and has to be trained again after an update.
+public final class MeowCdsTrainer {
+    private static final String USAGE = "Usage: meow --train-cds [document...]";
+    private static final Path DEFAULT_DOCUMENT = Path.of("demo", "HelloWorld.docx");
+
+    // Lines fed to documents that read input
+    private static final String INPUT = "meow\n".repeat(16);
+
+    public static void main(String[] args) throws IOException {
+        List<Path> documents = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("-")) {
+                throw new IllegalArgumentException(USAGE);
+            }
+            documents.add(Path.of(arg).toAbsolutePath());
+        }
+        if (documents.isEmpty()) {
+            if (!Files.isRegularFile(DEFAULT_DOCUMENT)) {
+                throw new IllegalArgumentException(USAGE);
+            }
+            documents.add(DEFAULT_DOCUMENT.toAbsolutePath());
+        }
+
+        Path jar = getJar();
+        Path archive = jar.resolveSibling(jar.getFileName() + ".jsa");
+        Files.deleteIfExists(archive);
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-XX:ArchiveClassesAtExit=" + archive);
+        // Train with the same options, such as the document reader
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("meow.") && !name.equals("meow.cache")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-Dmeow.cache=false");
+        command.add("-jar");
+        command.add(jar.toString());
+        for (Path document : documents) {
+            command.add(document.toString());
+        }
+
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try (OutputStream input = process.getOutputStream()) {
+            input.write(INPUT.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+            // The documents did not read everything
+        }
+
+        int status;
+        try {
+            status = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            throw new IOException(e);
+        }
+        if (status != 0 || !Files.isRegularFile(archive)) {
+            throw new IOException("Training failed with exit status " + status);
+        }
+        System.err.println("meow: CDS archive written to " + archive);
+    }
+
+    // meow.sh and meow.jar are both jars, with the archive next to them
+    private static Path getJar() throws IOException {
+        CodeSource codeSource = Main.class.getProtectionDomain().getCodeSource();
+        Path jar;
+        try {
+            jar = codeSource != null ? Path.of(codeSource.getLocation().toURI()).toAbsolutePath() : null;
+        } catch (URISyntaxException e) {
+            throw new IOException("Cannot locate the jar of the launcher", e);
+        }
+        if (jar == null || !Files.isRegularFile(jar)) {
+            throw new IOException("CDS archives can only be trained for the packaged launcher, not " + jar);
+        }
+        return jar;
+    }
+
+    private MeowCdsTrainer() {
+    }
+}
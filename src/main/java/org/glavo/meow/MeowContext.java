@@ -17,10 +17,13 @@
 package org.glavo.meow;
 
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.glavo.meow.ast.MeowExpression;
-import org.glavo.meow.value.MeowBuiltinFunction;
-import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.node.MeowNode;
+import org.glavo.meow.node.MeowProfiler;
+import org.glavo.meow.value.MeowBuiltins;
+import org.glavo.meow.value.MeowFunction;
+import org.glavo.meow.value.MeowLambda;
+import org.glavo.meow.value.MeowMap;
 import org.glavo.meow.value.MeowUnit;
 import org.glavo.meow.value.MeowValue;
 import org.jline.reader.LineReader;
@@ -28,31 +31,60 @@ import org.jline.reader.LineReaderBuilder;
 import org.jline.terminal.Terminal;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.MessageFormat;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public final class MeowContext {
 
     public static final MeowContext ROOT = new MeowContext();
 
+    // Returned by a body whose last call is left for MeowBlockNode.call, never seen by scripts
+    public static final MeowValue TAIL_CALL = (MeowFunction) (context, args) -> {
+        throw new IllegalStateException("Pending tail call");
+    };
+
+    // "poi" reads documents through XWPFDocument, "stax" streams word/document.xml
+    private static final String READER = System.getProperty("meow.reader", "poi");
+
+    private static final VarHandle BINDING;
+
     static {
-        for (var macro : MeowBuiltinMacro.values()) {
-            ROOT.setValue(macro.getMeow(), macro);
-        }
-        for (var function : MeowBuiltinFunction.values()) {
-            ROOT.setValue(function.getMeow(), function);
+        try {
+            BINDING = MethodHandles.lookup().findVarHandle(MeowContext.class, "binding", MeowMap.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
         }
     }
 
+    static {
+        MeowBuiltins.forEach(ROOT::setValue);
+    }
+
     // ---------------
 
     private final MeowContext parent;
     private final Terminal terminal;
     private final LineReader reader;
-    private final Map<Meow, MeowValue> binding = new LinkedHashMap<>();
+    private final MeowOutput output;
+
+    // Lambda frames keep their parameters and locals in slots, other bindings go to the map.
+    // The map is persistent, so lookups from other threads never lock, and updates swap it with a CAS.
+    private final MeowScope scope;
+    private MeowValue[] slots;
+    private volatile MeowMap binding;
+
+    // Set once a closure or another context refers to this one, after that the frame can no longer be reused
+    private boolean captured;
+
+    // A call in tail position of a lambda body is left here, and run by MeowBlockNode.call
+    // after the body has returned
+    private MeowLambda tailCallTarget;
+    private MeowValue[] tailCallSlots;
 
 
     // For ROOT
@@ -60,20 +92,54 @@ public final class MeowContext {
         this.parent = null;
         this.terminal = null;
         this.reader = null;
+        this.output = null;
+        this.scope = null;
+        this.slots = null;
+        this.binding = MeowMap.EMPTY;
     }
 
     public MeowContext(MeowContext parent) {
+        parent.captured = true;
         this.parent = parent;
         this.terminal = parent.terminal;
         this.reader = parent.reader;
+        this.output = parent.output;
+        this.scope = null;
+        this.slots = null;
+        this.binding = MeowMap.EMPTY;
+    }
+
+    public MeowContext(MeowContext parent, MeowScope scope, MeowValue[] slots) {
+        parent.captured = true;
+        this.parent = parent;
+        this.terminal = parent.terminal;
+        this.reader = parent.reader;
+        this.output = parent.output;
+        this.scope = scope;
+        this.slots = slots;
     }
 
     public MeowContext(Terminal terminal) {
+        this(terminal, new MeowOutput(terminal.writer()));
+    }
+
+    public MeowContext(Terminal terminal, MeowOutput output) {
+        this(terminal, LineReaderBuilder.builder().terminal(terminal).build(), output);
+    }
+
+    // Contexts running at the same time share one reader, see readline
+    public MeowContext(Terminal terminal, LineReader reader, MeowOutput output) {
         this.parent = ROOT;
         this.terminal = terminal;
-        this.reader = LineReaderBuilder.builder()
-                .terminal(terminal)
-                .build();
+        this.reader = reader;
+        this.output = output;
+        this.scope = null;
+        this.slots = null;
+        this.binding = MeowMap.EMPTY;
+    }
+
+    public MeowContext getParent() {
+        return parent;
     }
 
     public Terminal getTerminal() {
@@ -84,10 +150,65 @@ public final class MeowContext {
         return reader;
     }
 
+    public MeowOutput getOutput() {
+        return output;
+    }
+
+    public MeowScope getScope() {
+        return scope;
+    }
+
+    public MeowValue getSlot(int slot) {
+        return slots[slot];
+    }
+
+    public void setSlot(int slot, MeowValue value) {
+        slots[slot] = value;
+    }
+
+    public void markCaptured() {
+        captured = true;
+    }
+
+    // Whether the next call of a lambda can run in this frame instead of a new one
+    public boolean canReuseFor(MeowLambda lambda) {
+        return !captured && scope == lambda.scope() && parent == lambda.declarationContext();
+    }
+
+    public void reuse(MeowValue[] slots) {
+        this.slots = slots;
+        this.binding = null;
+    }
+
+    // Always returns TAIL_CALL, which tells MeowBlockNode.call that a tail call is pending
+    public MeowValue setTailCall(MeowLambda target, MeowValue[] slots) {
+        this.tailCallTarget = target;
+        this.tailCallSlots = slots;
+        return TAIL_CALL;
+    }
+
+    // Hands the pending tail call over and forgets it, so that the frame does not keep the slots alive
+    public MeowLambda takeTailCallTarget() {
+        MeowLambda target = tailCallTarget;
+        tailCallTarget = null;
+        return target;
+    }
+
+    public MeowValue[] takeTailCallSlots() {
+        MeowValue[] slots = tailCallSlots;
+        tailCallSlots = null;
+        return slots;
+    }
+
+    public boolean hasDynamicBindings() {
+        MeowMap binding = this.binding;
+        return binding != null && binding.size() > 0;
+    }
+
     public MeowValue getValue(Meow key) {
         MeowContext context = this;
         while (context != null) {
-            MeowValue value = context.binding.get(key);
+            MeowValue value = context.lookup(key);
             if (value != null) {
                 return value;
             } else {
@@ -98,31 +219,122 @@ public final class MeowContext {
         return MeowUnit.UNIT;
     }
 
+    private MeowValue lookup(Meow key) {
+        if (scope != null) {
+            int slot = scope.indexOf(key);
+            if (slot >= 0 && slots[slot] != null) {
+                return slots[slot];
+            }
+        }
+
+        MeowMap binding = this.binding;
+        return binding != null ? binding.get(key) : null;
+    }
+
     public void setValue(Meow key, MeowValue value) {
-        binding.put(key, value);
+        if (scope != null) {
+            int slot = scope.indexOf(key);
+            if (slot >= 0) {
+                slots[slot] = value;
+                return;
+            }
+        }
+
+        MeowMap current;
+        do {
+            current = binding;
+        } while (!BINDING.compareAndSet(this, current, (current != null ? current : MeowMap.EMPTY).assoc(key, value)));
     }
 
     public void evalFile(Path file) throws IOException {
-        try (var xwpfDocument = new XWPFDocument(Files.newInputStream(file))) {
-            evalDocument(xwpfDocument);
+        if (MeowProfiler.ENABLED) {
+            MeowProfiler.beginDocument(String.valueOf(file.getFileName()));
+        }
+
+        MeowCache cache = MeowCache.getDefault();
+        String key = cache != null ? MeowCache.key(file, READER) : null;
+        List<MeowExpression> program = cache != null ? cache.load(key) : null;
+        if (program != null) {
+            if (MeowLog.ENABLED) {
+                MeowLog.PARSER.debug("cached document={} paragraphs={}", () -> file, program::size);
+            }
+            evalProgram(program);
+            return;
+        }
+
+        var paragraphs = new ArrayList<MeowExpression>();
+        try {
+            readDocument(file, runs -> {
+                MeowExpression expr = MeowParser.parse(runs, true);
+                paragraphs.add(expr);
+                evalParagraph(expr);
+            });
+        } finally {
+            output.flush();
+        }
+
+        if (cache != null) {
+            cache.store(key, paragraphs);
         }
     }
 
-    public void evalDocument(XWPFDocument document) {
-        for (XWPFParagraph paragraph : document.getParagraphs()) {
-            MeowExpression expr = MeowParser.parse(paragraph.getRuns(), true);
-            log(">>> [{0}]", expr.toDebugString());
-            MeowValue result = expr.eval(this);
-            log("|   >>> return {0} in {1}", result.toDebugString(this), this);
+    public void evalProgram(List<MeowExpression> program) {
+        try {
+            for (MeowExpression expr : program) {
+                evalParagraph(expr);
+            }
+        } finally {
+            output.flush();
+        }
+    }
+
+    // Parses the document without evaluating it
+    public static List<MeowExpression> parseFile(Path file) throws IOException {
+        var paragraphs = new ArrayList<MeowExpression>();
+        readDocument(file, runs -> paragraphs.add(MeowParser.parse(runs, true)));
+        return paragraphs;
+    }
+
+    private static void readDocument(Path file, Consumer<List<MeowRun>> action) throws IOException {
+        if (MeowLog.ENABLED) {
+            MeowLog.PARSER.debug("read document={} reader={}", () -> file, () -> READER);
+        }
+        if ("stax".equals(READER)) {
+            MeowStAXReader.read(file, action);
+        } else {
+            try (var input = Files.newInputStream(file)) {
+                MeowXWPFReader.read(input, action);
+            }
         }
     }
 
-    // For debug...
-    // Although it is very simple, it is enough for early development :)
+    public void evalDocument(XWPFDocument document) {
+        if (MeowProfiler.ENABLED) {
+            MeowProfiler.beginDocument("document");
+        }
 
-    public void log(String pattern, Object... args) {
-        if (Meow.DEBUG) {
-            terminal.writer().println("[DEBUG] " + MessageFormat.format(pattern, args));
+        try {
+            MeowXWPFReader.read(document, runs -> evalParagraph(MeowParser.parse(runs, true)));
+        } finally {
+            output.flush();
+        }
+    }
+
+    public void evalParagraph(MeowExpression paragraph) {
+        MeowProfiler.Frame frame = MeowProfiler.ENABLED ? MeowProfiler.enterParagraph() : null;
+        try {
+            MeowExpression expr = MeowResolver.resolve(paragraph);
+            if (MeowLog.ENABLED) {
+                MeowLog.EVAL.debug("eval expression={}", expr::toDebugString);
+            }
+            MeowValue result = MeowNode.compile(expr).execute(this);
+            if (MeowLog.ENABLED) {
+                MeowLog.EVAL.debug("return value={} context={}", () -> result.toDebugString(this), () -> this);
+            }
+        } finally {
+            if (frame != null) {
+                MeowProfiler.exit(frame);
+            }
         }
     }
 
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+// Keeps a warm runtime around for short documents.
+//
+// `meow --daemon` listens on a Unix domain socket, and runs every request on a virtual thread in a context of its
+// own, so the parsed document cache, the JIT and the loaded classes are reused between runs.
+// `meow --client <document>` forwards a run to the daemon. The client sends the absolute path of the document and
+// the terminal width, followed by its stdin. The daemon answers with frames of output, each an int length followed
+// by the bytes, and ends with a negative int carrying the exit status as -1 - status.
+// The socket is $MEOW_SOCKET, or meow-<user>.sock in $TMPDIR or the temporary directory, and only the owner can use it.
+public final class MeowDaemon {
+    private static final String USAGE = "Usage: meow --daemon [--socket <path>]";
+
+    // EX_TEMPFAIL, the exit status of `meow --client` when no daemon is listening
+    public static final int NO_DAEMON_STATUS = 75;
+
+    public static Path getDefaultSocket() {
+        String socket = System.getenv("MEOW_SOCKET");
+        if (socket != null && !socket.isEmpty()) {
+            return Path.of(socket);
+        }
+        // The same directory as meow.sh uses
+        String directory = System.getenv("TMPDIR");
+        if (directory == null || directory.isEmpty()) {
+            directory = System.getProperty("java.io.tmpdir");
+        }
+        return Path.of(directory, "meow-" + System.getProperty("user.name") + ".sock");
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path socket = getDefaultSocket();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--socket") && i + 1 < args.length) {
+                socket = Path.of(args[++i]);
+            } else {
+                throw new IllegalArgumentException(USAGE);
+            }
+        }
+        serve(socket);
+    }
+
+    public static void serve(Path socket) throws IOException {
+        if (Files.exists(socket)) {
+            try (SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+                throw new IllegalStateException("A daemon is already listening on " + socket);
+            } catch (IOException e) {
+                // Left behind by a daemon that did not exit cleanly
+                Files.delete(socket);
+            }
+        }
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            bind(server, socket);
+            Path bound = socket;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(bound);
+                } catch (IOException ignored) {
+                }
+            }));
+            System.err.println("meow: daemon listening on " + socket);
+
+            while (true) {
+                SocketChannel channel = server.accept();
+                Thread.ofVirtual().name("meow-daemon-", 0).start(() -> handle(channel));
+            }
+        }
+    }
+
+    // The socket is bound in a directory only the owner can enter, and moved into place once it is private itself,
+    // so nobody else can connect while the socket still has the permissions it was created with
+    private static void bind(ServerSocketChannel server, Path socket) throws IOException {
+        Path parent = socket.toAbsolutePath().getParent();
+        Path directory = Files.createTempDirectory(parent, ".meow-",
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        try {
+            Path temp = directory.resolve("daemon.sock");
+            server.bind(UnixDomainSocketAddress.of(temp));
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+                Files.move(temp, socket, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    private static void handle(SocketChannel channel) {
+        try (channel) {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            Path document = Path.of(in.readUTF());
+            int columns = in.readInt();
+
+            int status = 0;
+            try (Terminal terminal = TerminalBuilder.builder()
+                    .system(false)
+                    .dumb(true)
+                    .streams(in, new FrameOutputStream(out))
+                    .size(new Size(columns, 24))
+                    .build()) {
+                try {
+                    new MeowContext(terminal, MeowOutput.direct(terminal.writer())).evalFile(document);
+                } catch (Exception | StackOverflowError e) {
+                    status = 1;
+                    terminal.writer().println("meow: " + document + ": " + e);
+                }
+                terminal.flush();
+            }
+            synchronized (out) {
+                out.writeInt(-1 - status);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    private static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+
+        FrameOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeInt(len);
+                out.write(b, off, len);
+                out.flush();
+            }
+        }
+    }
+
+    // Returns the exit status of the run, or -1 if no daemon is listening
+    public static int forward(Path document) throws IOException {
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(getDefaultSocket()));
+        } catch (IOException e) {
+            return -1;
+        }
+
+        try (channel) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            out.writeUTF(document.toAbsolutePath().toString());
+            out.writeInt(getColumns());
+            out.flush();
+
+            Thread.ofPlatform().daemon().name("meow-client-input").start(() -> {
+                try {
+                    System.in.transferTo(out);
+                    out.flush();
+                    channel.shutdownOutput();
+                } catch (IOException ignored) {
+                }
+            });
+
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            byte[] buffer = new byte[8192];
+            while (true) {
+                int length = in.readInt();
+                if (length < 0) {
+                    System.out.flush();
+                    return -1 - length;
+                }
+                if (buffer.length < length) {
+                    buffer = new byte[length];
+                }
+                in.readFully(buffer, 0, length);
+                System.out.write(buffer, 0, length);
+                System.out.flush();
+            }
+        }
+    }
+
+    private static int getColumns() {
+        try {
+            return Integer.parseInt(System.getenv("COLUMNS"));
+        } catch (NumberFormatException e) {
+            return 80;
+        }
+    }
+
+    private MeowDaemon() {
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+// Mirrors the values of w:highlight, so that runs and symbols do not depend on POI
+public enum MeowHighlight {
+    NONE("none"),
+    BLACK("black"),
+    BLUE("blue"),
+    CYAN("cyan"),
+    GREEN("green"),
+    MAGENTA("magenta"),
+    RED("red"),
+    YELLOW("yellow"),
+    WHITE("white"),
+    DARK_BLUE("darkBlue"),
+    DARK_CYAN("darkCyan"),
+    DARK_GREEN("darkGreen"),
+    DARK_MAGENTA("darkMagenta"),
+    DARK_RED("darkRed"),
+    DARK_YELLOW("darkYellow"),
+    DARK_GRAY("darkGray"),
+    LIGHT_GRAY("lightGray");
+
+    private static final MeowHighlight[] VALUES = values();
+
+    public static MeowHighlight ofXmlValue(String value) {
+        for (MeowHighlight highlight : VALUES) {
+            if (highlight.xmlValue.equals(value)) {
+                return highlight;
+            }
+        }
+        return NONE;
+    }
+
+    public static MeowHighlight ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    private final String xmlValue;
+
+    MeowHighlight(String xmlValue) {
+        this.xmlValue = xmlValue;
+    }
+
+    public String getXmlValue() {
+        return xmlValue;
+    }
+}
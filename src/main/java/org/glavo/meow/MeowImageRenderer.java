@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Renders pictures with '▀' half blocks, the foreground color is the upper pixel and the background the lower one.
+//
+// Pictures are scaled down to the width of the terminal. The rendering is cached in memory by the checksum of
+// the picture and the width. Renderings of scaled pictures are also kept deflated in MeowCache, so a large picture
+// is decoded and scaled at most once across runs. Color escapes are only written when the color changes.
+public final class MeowImageRenderer {
+    private static final int MAX_CACHED_RENDERINGS = 32;
+
+    // Images with more cells than this are rendered row by row in parallel
+    private static final int PARALLEL_THRESHOLD = 32 * 1024;
+
+    // The pictures of a document are the same arrays every time they are printed
+    private static final Map<byte[], String> CHECKSUMS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ConcurrentHashMap<String, String> RENDERINGS = new ConcurrentHashMap<>();
+
+    private record Pixels(int width, int height, int[] rgb) {
+        int get(int x, int y) {
+            return rgb[y * width + x];
+        }
+    }
+
+    // A width of 0 or less means the terminal width is unknown, the picture is not scaled then
+    public static void appendImage(StringBuilder builder, byte[] data, int columns) {
+        String checksum = CHECKSUMS.computeIfAbsent(data, MeowImageRenderer::checksum);
+        String key = checksum + "-" + Math.max(columns, 0);
+
+        String rendering = RENDERINGS.get(key);
+        if (rendering == null) {
+            rendering = loadRendering(data, key, columns);
+            if (RENDERINGS.size() >= MAX_CACHED_RENDERINGS) {
+                RENDERINGS.clear();
+            }
+            RENDERINGS.put(key, rendering);
+        }
+        builder.append(rendering);
+    }
+
+    private static String checksum(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String loadRendering(byte[] data, String key, int columns) {
+        // Only scaled renderings are worth keeping, a picture that fits is decoded again in no time
+        MeowCache cache = columns > 0 ? MeowCache.getDefault() : null;
+        String name = "image-" + key + ".ansi.z";
+        if (cache != null) {
+            String rendering = inflate(cache.loadData(name));
+            if (rendering != null) {
+                return rendering;
+            }
+        }
+
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (image == null) {
+            throw new IllegalArgumentException("Unsupported picture format");
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Pixels pixels = new Pixels(width, height, image.getRGB(0, 0, width, height, null, 0, width));
+        if (columns <= 0 || width <= columns) {
+            return render(pixels);
+        }
+
+        String rendering = render(scale(pixels, columns, Math.max(1, (int) Math.round((double) height * columns / width))));
+        if (cache != null) {
+            cache.storeData(name, deflate(rendering));
+        }
+        return rendering;
+    }
+
+    // Renderings repeat the same escapes and half blocks, so they shrink well
+    private static byte[] deflate(String rendering) {
+        var buffer = new ByteArrayOutputStream();
+        try (var output = new DeflaterOutputStream(buffer)) {
+            output.write(rendering.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String inflate(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try (var input = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Broken entries are rendered again
+            return null;
+        }
+    }
+
+    // Box filter, every target pixel is the average of the source pixels it covers
+    private static Pixels scale(Pixels source, int width, int height) {
+        int[] rgb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int fromY = (int) ((long) y * source.height() / height);
+            int toY = Math.max(fromY + 1, (int) ((long) (y + 1) * source.height() / height));
+            for (int x = 0; x < width; x++) {
+                int fromX = (int) ((long) x * source.width() / width);
+                int toX = Math.max(fromX + 1, (int) ((long) (x + 1) * source.width() / width));
+
+                long r = 0, g = 0, b = 0;
+                for (int sy = fromY; sy < toY; sy++) {
+                    for (int sx = fromX; sx < toX; sx++) {
+                        int pixel = source.get(sx, sy);
+                        r += (pixel >> 16) & 0xFF;
+                        g += (pixel >> 8) & 0xFF;
+                        b += pixel & 0xFF;
+                    }
+                }
+                int count = (toX - fromX) * (toY - fromY);
+                rgb[y * width + x] = (int) (r / count) << 16 | (int) (g / count) << 8 | (int) (b / count);
+            }
+        }
+        return new Pixels(width, height, rgb);
+    }
+
+    private static String render(Pixels pixels) {
+        int rows = (pixels.height() + 1) / 2;
+        IntStream indexes = IntStream.range(0, rows);
+        if ((long) rows * pixels.width() > PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        return indexes.mapToObj(row -> renderRow(pixels, row)).collect(Collectors.joining());
+    }
+
+    // Every row starts without colors and ends with a reset, so rows can be rendered independently
+    private static String renderRow(Pixels pixels, int row) {
+        StringBuilder builder = new StringBuilder(pixels.width() * 4 + 16);
+        int upperY = row * 2;
+        int lowerY = upperY + 1;
+
+        int foreground = -1;
+        int background = -1;
+        for (int x = 0; x < pixels.width(); x++) {
+            int upper = pixels.get(x, upperY) & 0xFFFFFF;
+            if (upper != foreground) {
+                MeowUtils.appendTrueRgbEscape(builder, false, upper);
+                foreground = upper;
+            }
+
+            if (lowerY < pixels.height()) {
+                int lower = pixels.get(x, lowerY) & 0xFFFFFF;
+                if (lower != background) {
+                    MeowUtils.appendTrueRgbEscape(builder, true, lower);
+                    background = lower;
+                }
+            }
+
+            builder.append('▀');
+        }
+
+        builder.append("\u001b[0m\n");
+        return builder.toString();
+    }
+
+    private MeowImageRenderer() {
+    }
+}
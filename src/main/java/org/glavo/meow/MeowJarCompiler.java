@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import kala.ansi.AnsiString;
+import org.apache.logging.log4j.Logger;
+import org.glavo.meow.ast.MeowExpression;
+import org.jline.terminal.Terminal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+// Compiles a document ahead of time into a runnable jar.
+//
+// The jar holds the parsed program in the format of MeowCache, and only the part of the runtime needed to
+// evaluate it: the interpreter, JLine, kala-ansi and the Log4j API. POI and everything it depends on are left out.
+public final class MeowJarCompiler {
+    public static final String PROGRAM = "META-INF/meow/program.meowc";
+
+    private static final List<String> RUNTIME_PREFIXES = List.of(
+            "org/glavo/meow/",
+            "org/jline/",
+            "kala/",
+            "META-INF/services/org/jline/",
+            "META-INF/services/org.jline.",
+            "org/apache/logging/log4j/"
+    );
+
+    // Tracing only needs the Log4j API, which falls back to a simple logger without the implementation
+    private static final List<String> EXCLUDED_PREFIXES = List.of(
+            "org/apache/logging/log4j/core/"
+    );
+
+    // meow compile <document.docx> [-o <output.jar>]
+    public static void main(String[] args) throws IOException {
+        Path document = null;
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                output = Path.of(args[++i]);
+            } else if (document == null) {
+                document = Path.of(args[i]);
+            } else {
+                throw new IllegalArgumentException("Usage: meow compile <document.docx> [-o <output.jar>]");
+            }
+        }
+        if (document == null) {
+            throw new IllegalArgumentException("Usage: meow compile <document.docx> [-o <output.jar>]");
+        }
+        if (output == null) {
+            String fileName = document.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            output = document.resolveSibling((dot > 0 ? fileName.substring(0, dot) : fileName) + ".jar");
+        }
+
+        compile(document, output);
+    }
+
+    public static void compile(Path document, Path output) throws IOException {
+        List<MeowExpression> program = MeowContext.parseFile(document);
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, Main.class.getName());
+
+        try (var jar = new JarOutputStream(Files.newOutputStream(output), manifest)) {
+            jar.putNextEntry(new JarEntry(PROGRAM));
+            MeowCache.write(jar, program);
+            jar.closeEntry();
+
+            Set<String> written = new HashSet<>();
+            written.add(JarFile.MANIFEST_NAME);
+            written.add(PROGRAM);
+            for (Path source : runtimeSources()) {
+                copyRuntime(source, jar, written);
+            }
+        }
+    }
+
+    // Returns null if this is not a compiled program
+    public static List<MeowExpression> loadEmbeddedProgram() throws IOException {
+        try (InputStream input = MeowJarCompiler.class.getResourceAsStream("/" + PROGRAM)) {
+            return input != null ? MeowCache.read(input) : null;
+        }
+    }
+
+    // The jars or class directories the runtime is loaded from, usually just the shadow jar
+    private static Set<Path> runtimeSources() throws IOException {
+        Set<Path> sources = new HashSet<>();
+        for (Class<?> c : List.of(Main.class, Terminal.class, AnsiString.class, Logger.class)) {
+            CodeSource codeSource = c.getProtectionDomain().getCodeSource();
+            if (codeSource == null) {
+                throw new IOException("Cannot locate the classes of " + c.getName());
+            }
+            try {
+                sources.add(Path.of(codeSource.getLocation().toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Cannot locate the classes of " + c.getName(), e);
+            }
+        }
+        return sources;
+    }
+
+    private static boolean isRuntimeEntry(String name) {
+        for (String prefix : EXCLUDED_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return false;
+            }
+        }
+        for (String prefix : RUNTIME_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return !name.endsWith("/");
+            }
+        }
+        return false;
+    }
+
+    private static void copyRuntime(Path source, JarOutputStream jar, Set<String> written) throws IOException {
+        if (Files.isDirectory(source)) {
+            try (Stream<Path> files = Files.walk(source)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    String name = source.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                    if (isRuntimeEntry(name) && written.add(name)) {
+                        jar.putNextEntry(new JarEntry(name));
+                        Files.copy(file, jar);
+                        jar.closeEntry();
+                    }
+                }
+            }
+        } else {
+            try (var file = new JarFile(source.toFile())) {
+                for (JarEntry entry : (Iterable<JarEntry>) file.stream()::iterator) {
+                    String name = entry.getName();
+                    if (isRuntimeEntry(name) && written.add(name)) {
+                        jar.putNextEntry(new JarEntry(name));
+                        try (InputStream input = file.getInputStream(entry)) {
+                            input.transferTo(jar);
+                        }
+                        jar.closeEntry();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// Tracing through Log4j, with a logger for each part of the interpreter:
+//   org.glavo.meow.parser    documents read and paragraphs parsed
+//   org.glavo.meow.eval      paragraphs evaluated, and with -Dmeow.debug=true every function and macro applied
+//   org.glavo.meow.builtins  effects of builtins, such as print, readline and spawn
+//   org.glavo.meow.cache     cache entries that could not be read or written, and entries evicted
+//
+// Tracing is on with -Dmeow.debug=true, which logs everything, or with -Dmeow.log.level=<level>.
+// Otherwise Log4j is not initialized by the interpreter, and ENABLED is a constant false that folds every
+// trace site away. Parameters are passed as suppliers, so debug strings are only built for events that are logged.
+// Events go to stderr, and with -Dmeow.log.async=true through a background thread, see log4j2.xml.
+public final class MeowLog {
+    public static final boolean ENABLED = Meow.DEBUG || System.getProperty("meow.log.level") != null;
+
+    public static final Logger PARSER = logger("parser");
+    public static final Logger EVAL = logger("eval");
+    public static final Logger BUILTINS = logger("builtins");
+    public static final Logger CACHE = logger("cache");
+
+    private static Logger logger(String name) {
+        return ENABLED ? LogManager.getLogger("org.glavo.meow." + name) : null;
+    }
+
+    private MeowLog() {
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Terminal output written by a dedicated thread, so that evaluation does not wait for slow terminals or pipes.
+//
+// Chunks go through a bounded ring buffer, and print blocks while it is full. The writer thread writes
+// everything that is queued in one batch, and flushes the terminal when the queue runs empty, or when
+// enough has been written or enough time has passed since the last flush.
+// flush() waits until everything printed so far has reached the terminal. It is called before reading input,
+// at the end of every document, and when the JVM exits. close() flushes and stops the writer thread.
+// With -Dmeow.output=sync, and for outputs created by direct(), chunks are written and flushed by the calling thread.
+public final class MeowOutput implements AutoCloseable {
+    private static final boolean SYNC = "sync".equals(System.getProperty("meow.output"));
+
+    private static final int CAPACITY = 256;
+    private static final int FLUSH_SIZE = 64 * 1024;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final PrintWriter target;
+    private final boolean direct;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+
+    private final String[] chunks = new String[CAPACITY];
+    private int head;
+    private int count;
+    private long enqueued;
+    private long completed;
+    private Thread writer;
+    private Thread flushHook;
+    private boolean closed;
+
+    public MeowOutput(PrintWriter target) {
+        this(target, SYNC);
+    }
+
+    private MeowOutput(PrintWriter target, boolean direct) {
+        this.target = target;
+        this.direct = direct;
+    }
+
+    // For targets that never block, such as in-memory buffers
+    public static MeowOutput direct(PrintWriter target) {
+        return new MeowOutput(target, true);
+    }
+
+    public void print(String chunk) {
+        if (direct) {
+            target.print(chunk);
+            target.flush();
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Output is closed");
+            }
+            if (writer == null) {
+                startWriter();
+            }
+            while (count == CAPACITY) {
+                notFull.awaitUninterruptibly();
+            }
+            chunks[(head + count) % CAPACITY] = chunk;
+            count++;
+            enqueued++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void println(CharSequence line) {
+        print(line + System.lineSeparator());
+    }
+
+    public void flush() {
+        if (direct) {
+            target.flush();
+            return;
+        }
+
+        lock.lock();
+        try {
+            while (completed != enqueued) {
+                drained.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (direct) {
+            target.flush();
+            return;
+        }
+
+        Thread flushHook;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            while (completed != enqueued) {
+                drained.awaitUninterruptibly();
+            }
+            // The writer returns once it sees the queue empty and closed
+            closed = true;
+            notEmpty.signal();
+            flushHook = this.flushHook;
+        } finally {
+            lock.unlock();
+        }
+
+        if (flushHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(flushHook);
+            } catch (IllegalStateException ignored) {
+                // Already shutting down, the hook only waits for output that has been written
+            }
+        }
+    }
+
+    // Called with the lock held
+    private void startWriter() {
+        writer = Thread.ofPlatform()
+                .name("meow-output")
+                .daemon(true)
+                .start(this::run);
+
+        // The writer is a daemon, so output still queued at exit is written here
+        flushHook = new Thread(this::flush, "meow-output-flush");
+        Runtime.getRuntime().addShutdownHook(flushHook);
+    }
+
+    private void run() {
+        StringBuilder batch = new StringBuilder();
+        long unflushed = 0;
+        long lastFlush = System.nanoTime();
+
+        while (true) {
+            int taken;
+            boolean empty;
+
+            lock.lock();
+            try {
+                while (count == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                taken = 0;
+                while (count > 0 && batch.length() < FLUSH_SIZE) {
+                    batch.append(chunks[head]);
+                    chunks[head] = null;
+                    head = (head + 1) % CAPACITY;
+                    count--;
+                    taken++;
+                }
+                empty = count == 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            target.write(batch.toString());
+            unflushed += batch.length();
+            batch.setLength(0);
+
+            long now = System.nanoTime();
+            if (empty || unflushed >= FLUSH_SIZE || now - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                target.flush();
+                unflushed = 0;
+                lastFlush = now;
+            }
+
+            lock.lock();
+            try {
+                completed += taken;
+                if (completed == enqueued) {
+                    drained.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
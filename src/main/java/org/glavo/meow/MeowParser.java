@@ -16,36 +16,66 @@
  */
 package org.glavo.meow;
 
-import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
 import org.glavo.meow.ast.MeowExpression;
 import org.glavo.meow.ast.MeowIdentifier;
 import org.glavo.meow.ast.MeowRichText;
 import org.glavo.meow.ast.MeowExpressionList;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 public final class MeowParser {
-    public static MeowExpression parse(List<XWPFRun> expression, boolean top) {
+    public static MeowExpression parse(List<MeowRun> expression, boolean top) {
+        Meow[] tokens = tokenize(expression);
+        MeowExpression result = parse(expression, tokens, matchBrackets(tokens), 0, expression.size(), top);
+        if (MeowLog.ENABLED) {
+            MeowLog.PARSER.trace("parse runs={} expression={}", expression::size, result::toDebugString);
+        }
+        return result;
+    }
+
+    // Classifies each run exactly once, non-keyword runs are null
+    public static Meow[] tokenize(List<MeowRun> expression) {
+        Meow[] tokens = new Meow[expression.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = Meow.of(expression.get(i));
+        }
+        return tokens;
+    }
+
+    // A bracket is closed by the next identical symbol, so instead of a stack we only need
+    // the index of the next occurrence of each symbol, which one backward pass computes.
+    // If there is none, the bracket extends to the end of the enclosing expression.
+    public static int[] matchBrackets(Meow[] tokens) {
+        int[] ends = new int[tokens.length];
+        var next = new HashMap<Meow, Integer>();
+        for (int i = tokens.length - 1; i >= 0; i--) {
+            Meow meow = tokens[i];
+            if (meow != null) {
+                ends[i] = next.getOrDefault(meow, tokens.length);
+                next.put(meow, i);
+            }
+        }
+        return ends;
+    }
+
+    private static MeowExpression parse(List<MeowRun> expression, Meow[] tokens, int[] ends, int from, int to, boolean top) {
         var meowExpressions = new ArrayList<MeowExpression>();
 
-        for (int i = 0; i < expression.size(); i++) {
-            XWPFRun term = expression.get(i);
-            Meow meow = Meow.of(term);
+        for (int i = from; i < to; i++) {
+            Meow meow = tokens[i];
             if (meow == null) {
                 continue;
             }
 
-            if (meow.isBracket() || meow.getUnderline() != UnderlinePatterns.NONE) {
-                int end = MeowUtils.findEnd(expression, meow, i);
-
-                List<XWPFRun> content = expression.subList(i + 1, end);
+            if (meow.isBracket() || meow.getUnderline() != MeowUnderline.NONE) {
+                int end = Math.min(ends[i], to);
 
                 if (meow.isBracket()) {
-                    meowExpressions.add(parse(content, false));
-                } else if (meow.getUnderline() == UnderlinePatterns.SINGLE) {
-                    meowExpressions.add(new MeowRichText(content));
+                    meowExpressions.add(parse(expression, tokens, ends, i + 1, end, false));
+                } else if (meow.getUnderline() == MeowUnderline.SINGLE) {
+                    meowExpressions.add(new MeowRichText(expression.subList(i + 1, end)));
                 } else {
                     // TODO: ???
                 }
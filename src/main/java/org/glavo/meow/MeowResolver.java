@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.ast.MeowIdentifier;
+import org.glavo.meow.ast.MeowLambdaExpression;
+import org.glavo.meow.ast.MeowLocalIdentifier;
+import org.glavo.meow.ast.MeowRichText;
+import org.glavo.meow.value.MeowBuiltinMacro;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resolves identifiers bound by enclosing lambdas to (depth, slot) addresses.
+// Everything else, including all top-level bindings, keeps the dynamic lookup.
+public final class MeowResolver {
+
+    private record Environment(Environment parent, MeowScope scope) {
+    }
+
+    public static MeowExpression resolve(MeowExpression expression) {
+        return resolve(expression, null);
+    }
+
+    private static MeowExpression resolve(MeowExpression expression, Environment environment) {
+        return switch (expression) {
+            case MeowIdentifier(Meow meow) -> {
+                int depth = 0;
+                for (Environment env = environment; env != null; env = env.parent(), depth++) {
+                    int slot = env.scope().indexOf(meow);
+                    if (slot >= 0) {
+                        yield new MeowLocalIdentifier(meow, env.scope(), depth, slot);
+                    }
+                }
+                yield expression;
+            }
+            case MeowExpressionList(List<MeowExpression> nodes) -> {
+                List<Meow> parameters = lambdaParameters(nodes);
+                if (parameters != null) {
+                    List<MeowExpression> body = nodes.subList(2, nodes.size());
+
+                    var locals = new ArrayList<Meow>();
+                    for (MeowExpression node : body) {
+                        collectLocals(node, parameters, locals);
+                    }
+
+                    MeowScope scope = new MeowScope(parameters, locals);
+                    Environment bodyEnvironment = new Environment(environment, scope);
+                    yield new MeowLambdaExpression(
+                            resolve(nodes.getFirst(), environment),
+                            nodes.get(1),
+                            body.stream().map(node -> resolve(node, bodyEnvironment)).toList(),
+                            scope
+                    );
+                }
+
+                if (isForm(nodes, MeowBuiltinMacro.INTEGER) || isForm(nodes, MeowBuiltinMacro.FLOAT)) {
+                    // The argument of `integer` and `float` is a literal, not a reference
+                    yield expression;
+                }
+
+                yield new MeowExpressionList(nodes.stream().map(node -> resolve(node, environment)).toList());
+            }
+            case MeowRichText richText -> richText;
+            case MeowLocalIdentifier local -> local;
+            case MeowLambdaExpression lambda -> lambda;
+        };
+    }
+
+    private static boolean isForm(List<MeowExpression> nodes, MeowBuiltinMacro macro) {
+        return !nodes.isEmpty()
+               && nodes.getFirst() instanceof MeowIdentifier(Meow meow)
+               && meow == macro.getMeow();
+    }
+
+    // Returns null if the nodes are not a well-formed `lambda` form
+    private static List<Meow> lambdaParameters(List<MeowExpression> nodes) {
+        if (nodes.size() < 2 || !isForm(nodes, MeowBuiltinMacro.LAMBDA)) {
+            return null;
+        }
+
+        if (nodes.get(1) instanceof MeowIdentifier(Meow meow)) {
+            return List.of(meow);
+        } else if (nodes.get(1) instanceof MeowExpressionList(List<MeowExpression> parameterNodes)) {
+            var parameters = new ArrayList<Meow>(parameterNodes.size());
+            for (MeowExpression node : parameterNodes) {
+                if (!(node instanceof MeowIdentifier(Meow meow))) {
+                    return null;
+                }
+                parameters.add(meow);
+            }
+            return parameters;
+        } else {
+            return null;
+        }
+    }
+
+    // Collects the targets of `let` that bind in the frame of the enclosing lambda
+    private static void collectLocals(MeowExpression expression, List<Meow> parameters, List<Meow> locals) {
+        if (!(expression instanceof MeowExpressionList(List<MeowExpression> nodes))
+            || lambdaParameters(nodes) != null) {
+            return;
+        }
+
+        if (nodes.size() == 3
+            && isForm(nodes, MeowBuiltinMacro.LET)
+            && nodes.get(1) instanceof MeowIdentifier(Meow meow)
+            && !parameters.contains(meow)
+            && !locals.contains(meow)) {
+            locals.add(meow);
+        }
+
+        for (MeowExpression node : nodes) {
+            collectLocals(node, parameters, locals);
+        }
+    }
+
+    private MeowResolver() {
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import java.util.List;
+
+// A snapshot of a Word run with only the properties Meow cares about.
+// Runs are converted once when the document is read, everything after that works without POI.
+public record MeowRun(
+        String text,
+        boolean italic,
+        boolean bold,
+        MeowUnderline underline,
+        int color,
+        MeowHighlight highlightColor,
+        String font,
+        Double fontSize,
+        List<byte[]> pictures
+) {
+    public static MeowRun of(String text) {
+        return new MeowRun(text, false, false, MeowUnderline.NONE, 0, MeowHighlight.NONE, null, null, List.of());
+    }
+
+    public static int parseColor(String color) {
+        if (color == null) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(color, 16);
+        } catch (NumberFormatException e) {
+            // "auto"
+            return 0;
+        }
+    }
+
+    public boolean isBlank() {
+        return pictures.isEmpty() && text.isBlank();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import java.util.Arrays;
+import java.util.List;
+
+// The static layout of a lambda frame: parameters first, then the symbols bound by `let` in the body
+public final class MeowScope {
+
+    public static MeowScope of(List<Meow> parameters) {
+        return new MeowScope(parameters, List.of());
+    }
+
+    private final Meow[] symbols;
+    private final int parameterCount;
+
+    public MeowScope(List<Meow> parameters, List<Meow> locals) {
+        this.symbols = new Meow[parameters.size() + locals.size()];
+        this.parameterCount = parameters.size();
+
+        for (int i = 0; i < parameters.size(); i++) {
+            symbols[i] = parameters.get(i);
+        }
+        for (int i = 0; i < locals.size(); i++) {
+            symbols[parameterCount + i] = locals.get(i);
+        }
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    public List<Meow> getParameters() {
+        return Arrays.asList(symbols).subList(0, parameterCount);
+    }
+
+    public Meow getSymbol(int slot) {
+        return symbols[slot];
+    }
+
+    // Searched from the end, so when a parameter is declared twice the last one wins
+    public int indexOf(Meow meow) {
+        for (int i = symbols.length - 1; i >= 0; i--) {
+            if (symbols[i] == meow) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "Scope" + Arrays.toString(symbols);
+    }
+}
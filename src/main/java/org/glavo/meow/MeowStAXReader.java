@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Streams word/document.xml with StAX instead of building the XWPF DOM.
+// Only reads the direct run properties that MeowXWPFReader reads through POI,
+// and hands each body-level paragraph to the action as soon as it is closed.
+public final class MeowStAXReader {
+
+    private static final String PACKAGE_RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String OFFICE_DOCUMENT = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument";
+    private static final String R = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String A = "http://schemas.openxmlformats.org/drawingml/2006/main";
+
+    private static final XMLInputFactory FACTORY;
+
+    static {
+        FACTORY = XMLInputFactory.newDefaultFactory();
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    public static void read(Path file, Consumer<List<MeowRun>> action) throws IOException {
+        try (var zip = new ZipFile(file.toFile())) {
+            String documentPart = "word/document.xml";
+            for (Map.Entry<String, String> relationship : readRelationships(zip, "_rels/.rels", OFFICE_DOCUMENT).entrySet()) {
+                documentPart = resolvePart("", relationship.getValue());
+            }
+
+            int separator = documentPart.lastIndexOf('/');
+            String directory = documentPart.substring(0, separator + 1);
+            String relationshipsPart = directory + "_rels/" + documentPart.substring(separator + 1) + ".rels";
+
+            ZipEntry entry = zip.getEntry(documentPart);
+            if (entry == null) {
+                throw new IOException("Missing part " + documentPart + " in " + file);
+            }
+
+            var reader = new DocumentReader(zip, directory, readRelationships(zip, relationshipsPart, null), action);
+            try (InputStream input = zip.getInputStream(entry)) {
+                reader.read(input);
+            }
+        }
+    }
+
+    // Returns the id -> target map of the relationships of the given type, or all internal relationships if type is null
+    private static Map<String, String> readRelationships(ZipFile zip, String part, String type) throws IOException {
+        var result = new HashMap<String, String>();
+        ZipEntry entry = zip.getEntry(part);
+        if (entry == null) {
+            return result;
+        }
+
+        try (InputStream input = zip.getInputStream(entry)) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(input);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && "Relationship".equals(reader.getLocalName())
+                        && PACKAGE_RELATIONSHIPS.equals(reader.getNamespaceURI())
+                        && !"External".equals(reader.getAttributeValue(null, "TargetMode"))
+                        && (type == null || type.equals(reader.getAttributeValue(null, "Type")))) {
+                        result.put(reader.getAttributeValue(null, "Id"), reader.getAttributeValue(null, "Target"));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to read " + part, e);
+        }
+        return result;
+    }
+
+    private static String resolvePart(String directory, String target) {
+        return URI.create("/" + directory).resolve(target).getPath().substring(1);
+    }
+
+    private static boolean isOn(XMLStreamReader reader) {
+        String value = reader.getAttributeValue(W, "val");
+        return value == null || !(value.equals("0") || value.equals("false") || value.equals("off"));
+    }
+
+    private static final class DocumentReader {
+        private final ZipFile zip;
+        private final String directory;
+        private final Map<String, String> relationships;
+        private final Map<String, byte[]> pictureCache = new HashMap<>();
+        private final Consumer<List<MeowRun>> action;
+
+        // Depths of the elements we are currently inside, or -1
+        private int depth = 0;
+        private int bodyDepth = -1;
+        private int paragraphDepth = -1;
+        private int runDepth = -1;
+        private int runPropertiesDepth = -1;
+        private int textDepth = -1;
+        private int ignoredDepth = -1;
+
+        private List<MeowRun> runs;
+
+        private final StringBuilder text = new StringBuilder();
+        private boolean italic;
+        private boolean bold;
+        private MeowUnderline underline;
+        private int color;
+        private MeowHighlight highlightColor;
+        private String font;
+        private Double fontSize;
+        private List<byte[]> pictures;
+
+        DocumentReader(ZipFile zip, String directory, Map<String, String> relationships, Consumer<List<MeowRun>> action) {
+            this.zip = zip;
+            this.directory = directory;
+            this.relationships = relationships;
+            this.action = action;
+        }
+
+        void read(InputStream input) throws IOException {
+            try {
+                XMLStreamReader reader = FACTORY.createXMLStreamReader(input);
+                try {
+                    while (reader.hasNext()) {
+                        switch (reader.next()) {
+                            case XMLStreamConstants.START_ELEMENT -> {
+                                depth++;
+                                if (ignoredDepth < 0) {
+                                    startElement(reader);
+                                }
+                            }
+                            case XMLStreamConstants.END_ELEMENT -> {
+                                endElement();
+                                depth--;
+                            }
+                            case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                                if (textDepth >= 0) {
+                                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                                }
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to read document", e);
+            }
+        }
+
+        private void startElement(XMLStreamReader reader) throws IOException {
+            String namespace = reader.getNamespaceURI();
+            String name = reader.getLocalName();
+
+            if (A.equals(namespace)) {
+                if (runDepth >= 0 && name.equals("blip")) {
+                    String id = reader.getAttributeValue(R, "embed");
+                    if (id != null) {
+                        byte[] picture = readPicture(id);
+                        if (picture != null) {
+                            pictures.add(picture);
+                        }
+                    }
+                }
+                return;
+            }
+
+            if (!W.equals(namespace)) {
+                return;
+            }
+
+            if (runPropertiesDepth >= 0) {
+                if (depth == runPropertiesDepth + 1) {
+                    readRunProperty(reader, name);
+                }
+                return;
+            }
+
+            switch (name) {
+                case "body" -> {
+                    if (bodyDepth < 0) {
+                        bodyDepth = depth;
+                    }
+                }
+                case "p" -> {
+                    if (paragraphDepth < 0 && bodyDepth >= 0 && depth == bodyDepth + 1) {
+                        paragraphDepth = depth;
+                        runs = new ArrayList<>();
+                    }
+                }
+                case "txbxContent" -> {
+                    // Text boxes have paragraphs of their own, POI does not return them as runs either
+                    if (paragraphDepth >= 0) {
+                        ignoredDepth = depth;
+                    }
+                }
+                case "r" -> {
+                    if (paragraphDepth >= 0 && runDepth < 0) {
+                        runDepth = depth;
+                        startRun();
+                    }
+                }
+                case "rPr" -> {
+                    if (runDepth >= 0 && depth == runDepth + 1) {
+                        runPropertiesDepth = depth;
+                    }
+                }
+                case "t", "delText" -> {
+                    if (runDepth >= 0) {
+                        textDepth = depth;
+                    }
+                }
+                case "tab", "ptab" -> {
+                    if (runDepth >= 0) {
+                        text.append('\t');
+                    }
+                }
+                case "br", "cr" -> {
+                    if (runDepth >= 0) {
+                        text.append('\n');
+                    }
+                }
+                case "noBreakHyphen" -> {
+                    if (runDepth >= 0) {
+                        text.append('‑');
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void readRunProperty(XMLStreamReader reader, String name) {
+            switch (name) {
+                case "i" -> italic = isOn(reader);
+                case "b" -> bold = isOn(reader);
+                case "u" -> underline = MeowUnderline.ofXmlValue(reader.getAttributeValue(W, "val"));
+                case "color" -> color = MeowRun.parseColor(reader.getAttributeValue(W, "val"));
+                case "highlight" -> highlightColor = MeowHighlight.ofXmlValue(reader.getAttributeValue(W, "val"));
+                case "rFonts" -> font = reader.getAttributeValue(W, "ascii");
+                case "sz" -> {
+                    String value = reader.getAttributeValue(W, "val");
+                    if (value != null) {
+                        try {
+                            fontSize = Long.parseLong(value) / 2.0;
+                        } catch (NumberFormatException ignored) {
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void endElement() {
+            if (depth == ignoredDepth) {
+                ignoredDepth = -1;
+            } else if (depth == textDepth) {
+                textDepth = -1;
+            } else if (depth == runPropertiesDepth) {
+                runPropertiesDepth = -1;
+            } else if (depth == runDepth) {
+                runs.add(new MeowRun(text.toString(), italic, bold, underline, color, highlightColor, font, fontSize, List.copyOf(pictures)));
+                runDepth = -1;
+            } else if (depth == paragraphDepth) {
+                List<MeowRun> paragraph = runs;
+                runs = null;
+                paragraphDepth = -1;
+                action.accept(paragraph);
+            } else if (depth == bodyDepth) {
+                bodyDepth = -1;
+            }
+        }
+
+        private void startRun() {
+            text.setLength(0);
+            italic = false;
+            bold = false;
+            underline = MeowUnderline.NONE;
+            color = 0;
+            highlightColor = MeowHighlight.NONE;
+            font = null;
+            fontSize = null;
+            pictures = new ArrayList<>();
+        }
+
+        private byte[] readPicture(String id) throws IOException {
+            byte[] picture = pictureCache.get(id);
+            if (picture != null) {
+                return picture;
+            }
+
+            String target = relationships.get(id);
+            if (target == null) {
+                return null;
+            }
+
+            ZipEntry entry = zip.getEntry(resolvePart(directory, target));
+            if (entry == null) {
+                return null;
+            }
+
+            try (InputStream input = zip.getInputStream(entry)) {
+                picture = input.readAllBytes();
+            }
+            pictureCache.put(id, picture);
+            return picture;
+        }
+    }
+
+    private MeowStAXReader() {
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The character properties of a run, without its content.
+// Instances created through of() are shared, so texts can keep a small table of styles instead of one per run.
+// Like Meows, they are only held weakly, so that a long-lived daemon does not keep the styles of every document.
+public record MeowStyle(
+        boolean italic,
+        boolean bold,
+        MeowUnderline underline,
+        int color,
+        MeowHighlight highlightColor,
+        String font,
+        Double fontSize
+) {
+    // The keys are equal copies, so that the table does not keep the shared instances alive
+    private static final class Ref extends WeakReference<MeowStyle> {
+        final MeowStyle key;
+
+        Ref(MeowStyle style, MeowStyle key) {
+            super(style, QUEUE);
+            this.key = key;
+        }
+    }
+
+    private static final ReferenceQueue<MeowStyle> QUEUE = new ReferenceQueue<>();
+    private static final ConcurrentHashMap<MeowStyle, Ref> STYLES = new ConcurrentHashMap<>();
+
+    public static final MeowStyle PLAIN = of(false, false, MeowUnderline.NONE, 0, MeowHighlight.NONE, null, null);
+
+    public static MeowStyle of(boolean italic, boolean bold, MeowUnderline underline, int color,
+                               MeowHighlight highlightColor, String font, Double fontSize) {
+        MeowStyle key = new MeowStyle(italic, bold, underline, color, highlightColor, font, fontSize);
+        Ref ref = STYLES.get(key);
+        MeowStyle style = ref != null ? ref.get() : null;
+        if (style != null) {
+            return style;
+        }
+
+        expungeStaleStyles();
+        style = new MeowStyle(italic, bold, underline, color, highlightColor, font, fontSize);
+        Ref created = new Ref(style, key);
+        while (true) {
+            Ref existing = STYLES.putIfAbsent(key, created);
+            if (existing == null) {
+                return style;
+            }
+            MeowStyle other = existing.get();
+            if (other != null) {
+                return other;
+            }
+            if (STYLES.replace(key, existing, created)) {
+                return style;
+            }
+        }
+    }
+
+    public static MeowStyle of(MeowRun run) {
+        return of(run.italic(), run.bold(), run.underline(), run.color(), run.highlightColor(), run.font(), run.fontSize());
+    }
+
+    private static void expungeStaleStyles() {
+        Reference<? extends MeowStyle> ref;
+        while ((ref = QUEUE.poll()) != null) {
+            Ref stale = (Ref) ref;
+            STYLES.remove(stale.key, stale);
+        }
+    }
+}
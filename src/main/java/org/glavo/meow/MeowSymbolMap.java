@@ -17,12 +17,12 @@
 package org.glavo.meow;
 
 import org.glavo.meow.ast.MeowExpression;
-import org.glavo.meow.value.MeowBuiltinFunction;
-import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.value.MeowBuiltins;
 
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,25 +30,14 @@ public final class MeowSymbolMap {
 
     public static final MeowSymbolMap INSTANCE = new MeowSymbolMap();
     static {
-        for (var macro : MeowBuiltinMacro.values()) {
-            Meow meow = macro.getMeow();
-            String name = macro.getName();
-            if (!INSTANCE.builtinSymbols.containsKey(meow)) {
-                INSTANCE.builtinSymbols.put(meow, "@" + name);
-            }
-        }
-
-        for (var function : MeowBuiltinFunction.values()) {
-            Meow meow = function.getMeow();
-            String name = function.getName();
-            if (!INSTANCE.builtinSymbols.containsKey(meow)) {
-                INSTANCE.builtinSymbols.put(meow, "@" + name);
-            }
-        }
+        MeowBuiltins.forEach((meow, builtin) -> INSTANCE.builtinSymbols.putIfAbsent(meow, "@" + builtin.getName()));
     }
 
+    // Only filled by the static initializer, so it is read without locking
     final Map<Meow, String> builtinSymbols = new LinkedHashMap<>();
-    final Map<Meow, String> userSymbols = new LinkedHashMap<>();
+    // Guarded by this. Weak, like the interned Meows themselves, so names of symbols that are gone are dropped
+    final Map<Meow, Integer> userSymbols = new WeakHashMap<>();
+    private int nextUserSymbol;
 
     public String get(Meow meow) {
         String name = builtinSymbols.get(meow);
@@ -56,8 +45,9 @@ public final class MeowSymbolMap {
             return name;
         }
 
-        name = userSymbols.computeIfAbsent(meow, k -> "$" + userSymbols.size());
-        return name;
+        synchronized (this) {
+            return "$" + userSymbols.computeIfAbsent(meow, k -> nextUserSymbol++);
+        }
     }
 
     public String toString(List<MeowExpression> nodes) {
@@ -66,16 +56,21 @@ public final class MeowSymbolMap {
     }
 
     @Override
-    public String toString() {
+    public synchronized String toString() {
         StringBuilder builder = new StringBuilder();
         builder.append("Symbols:\n");
 
+        List<Map.Entry<Meow, String>> users = userSymbols.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .map(entry -> Map.entry(entry.getKey(), "$" + entry.getValue()))
+                .toList();
+
         int maxLength = Math.max(
                 builtinSymbols.values().stream().mapToInt(String::length).max().orElse(0),
-                userSymbols.values().stream().mapToInt(String::length).max().orElse(0)
+                users.stream().mapToInt(entry -> entry.getValue().length()).max().orElse(0)
         ) + 1;
 
-        Stream.concat(builtinSymbols.entrySet().stream(), userSymbols.entrySet().stream())
+        Stream.concat(builtinSymbols.entrySet().stream(), users.stream())
                 .forEach(entry -> {
                     builder.append("  ").append(entry.getValue());
                     builder.repeat(' ', maxLength - entry.getValue().length());
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+// Mirrors the values of w:u, so that runs and symbols do not depend on POI
+public enum MeowUnderline {
+    NONE("none"),
+    SINGLE("single"),
+    WORDS("words"),
+    DOUBLE("double"),
+    THICK("thick"),
+    DOTTED("dotted"),
+    DOTTED_HEAVY("dottedHeavy"),
+    DASH("dash"),
+    DASHED_HEAVY("dashedHeavy"),
+    DASH_LONG("dashLong"),
+    DASH_LONG_HEAVY("dashLongHeavy"),
+    DOT_DASH("dotDash"),
+    DASH_DOT_HEAVY("dashDotHeavy"),
+    DOT_DOT_DASH("dotDotDash"),
+    DASH_DOT_DOT_HEAVY("dashDotDotHeavy"),
+    WAVE("wave"),
+    WAVY_HEAVY("wavyHeavy"),
+    WAVY_DOUBLE("wavyDouble");
+
+    private static final MeowUnderline[] VALUES = values();
+
+    public static MeowUnderline ofXmlValue(String value) {
+        for (MeowUnderline underline : VALUES) {
+            if (underline.xmlValue.equals(value)) {
+                return underline;
+            }
+        }
+        return NONE;
+    }
+
+    public static MeowUnderline ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    private final String xmlValue;
+
+    MeowUnderline(String xmlValue) {
+        this.xmlValue = xmlValue;
+    }
+
+    public String getXmlValue() {
+        return xmlValue;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFPicture;
+import org.apache.poi.xwpf.usermodel.XWPFPictureData;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reads documents through POI. This is the only place that touches XWPF classes.
+public final class MeowXWPFReader {
+
+    public static void read(InputStream input, Consumer<List<MeowRun>> action) throws IOException {
+        try (var document = new XWPFDocument(input)) {
+            read(document, action);
+        }
+    }
+
+    public static void read(XWPFDocument document, Consumer<List<MeowRun>> action) {
+        for (XWPFParagraph paragraph : document.getParagraphs()) {
+            action.accept(toRuns(paragraph.getRuns()));
+        }
+    }
+
+    public static List<MeowRun> toRuns(List<XWPFRun> runs) {
+        var result = new ArrayList<MeowRun>(runs.size());
+        for (XWPFRun run : runs) {
+            result.add(toRun(run));
+        }
+        return result;
+    }
+
+    public static MeowRun toRun(XWPFRun run) {
+        var pictures = new ArrayList<byte[]>();
+        for (XWPFPicture picture : run.getEmbeddedPictures()) {
+            XWPFPictureData pictureData = picture.getPictureData();
+            if (pictureData != null) {
+                pictures.add(pictureData.getData());
+            }
+        }
+
+        return new MeowRun(
+                run.text(),
+                run.isItalic(),
+                run.isBold(),
+                MeowUnderline.valueOf(run.getUnderline().name()),
+                MeowRun.parseColor(run.getColor()),
+                MeowHighlight.ofXmlValue(run.getTextHighlightColor().toString()),
+                run.getFontFamily(),
+                run.getFontSizeAsDouble(),
+                List.copyOf(pictures)
+        );
+    }
+
+    private MeowXWPFReader() {
+    }
+}
@@ -19,7 +19,7 @@ package org.glavo.meow.ast;
 import org.glavo.meow.MeowContext;
 import org.glavo.meow.value.MeowValue;
 
-public sealed interface MeowExpression permits MeowExpressionList, MeowRichText, MeowIdentifier {
+public sealed interface MeowExpression permits MeowExpressionList, MeowRichText, MeowIdentifier, MeowLocalIdentifier, MeowLambdaExpression {
 
     MeowValue eval(MeowContext context);
 
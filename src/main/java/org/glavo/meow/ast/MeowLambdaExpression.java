@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.ast;
+
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowScope;
+import org.glavo.meow.MeowSymbolMap;
+import org.glavo.meow.node.MeowNode;
+import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.value.MeowLambda;
+import org.glavo.meow.value.MeowValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A `lambda` form whose frame layout has been computed by MeowResolver.
+// If the head is no longer the builtin `lambda`, it is evaluated like an ordinary MeowExpressionList.
+public record MeowLambdaExpression(
+        MeowExpression head,
+        MeowExpression parameters,
+        List<MeowExpression> body,
+        MeowScope scope
+) implements MeowExpression {
+
+    @Override
+    public MeowValue eval(MeowContext context) {
+        MeowValue function = head.eval(context);
+        if (function == MeowBuiltinMacro.LAMBDA) {
+            return new MeowLambda(context, scope, body, MeowNode.compileBlock(scope, body));
+        }
+
+        return function.apply(context, arguments());
+    }
+
+    public List<MeowExpression> arguments() {
+        var arguments = new ArrayList<MeowExpression>(body.size() + 1);
+        arguments.add(parameters);
+        arguments.addAll(body);
+        return arguments;
+    }
+
+    @Override
+    public String toDebugString() {
+        var nodes = new ArrayList<MeowExpression>(body.size() + 2);
+        nodes.add(head);
+        nodes.addAll(arguments());
+        return MeowSymbolMap.INSTANCE.toString(nodes);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.ast;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowScope;
+import org.glavo.meow.MeowSymbolMap;
+import org.glavo.meow.value.MeowValue;
+
+// The address is only trusted if the frame really has the expected scope,
+// otherwise we fall back to the dynamic lookup of MeowIdentifier.
+public record MeowLocalIdentifier(Meow meow, MeowScope scope, int depth, int slot) implements MeowExpression {
+
+    @Override
+    public MeowValue eval(MeowContext context) {
+        MeowContext frame = context;
+        for (int i = 0; i < depth && frame != null; i++) {
+            if (frame.hasDynamicBindings()) {
+                return context.getValue(meow);
+            }
+            frame = frame.getParent();
+        }
+
+        if (frame != null && frame.getScope() == scope) {
+            MeowValue value = frame.getSlot(slot);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return context.getValue(meow);
+    }
+
+    // `let` always binds in the current frame
+    public void assign(MeowContext context, MeowValue value) {
+        if (depth == 0 && context.getScope() == scope) {
+            context.setSlot(slot, value);
+        } else {
+            context.setValue(meow, value);
+        }
+    }
+
+    @Override
+    public String toDebugString() {
+        return MeowSymbolMap.INSTANCE.get(meow);
+    }
+}
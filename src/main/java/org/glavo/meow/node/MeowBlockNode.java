@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowScope;
+import org.glavo.meow.value.MeowLambda;
+import org.glavo.meow.value.MeowUnit;
+import org.glavo.meow.value.MeowValue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// The body of a lambda form. Executes the nodes in order and returns the value of the last one.
+public final class MeowBlockNode extends MeowNode {
+    private static final VarHandle COMPILING;
+
+    static {
+        try {
+            COMPILING = MethodHandles.lookup().findVarHandle(MeowBlockNode.class, "compiling", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MeowScope scope;
+    private final MeowNode[] nodes;
+
+    // Racy, blocks run on several threads may lose counts, which only delays compilation a little
+    private int invocations;
+    // Set by the one thread that compiles the block, even when compiling fails
+    private volatile boolean compiling;
+    private volatile MeowCompiledCode compiled;
+
+    MeowBlockNode(MeowScope scope, MeowNode[] nodes) {
+        this.scope = scope;
+        this.nodes = nodes;
+    }
+
+    MeowScope getScope() {
+        return scope;
+    }
+
+    MeowNode[] getNodes() {
+        return nodes;
+    }
+
+    // Entry point for calls of the lambda.
+    // Calls in tail position are run by this loop, so that recursion in tail position runs in constant stack.
+    public MeowValue call(MeowContext frame) {
+        MeowBlockNode block = this;
+        while (true) {
+            MeowValue result = block.run(frame);
+            if (result != MeowContext.TAIL_CALL) {
+                return result;
+            }
+
+            MeowLambda target = frame.takeTailCallTarget();
+            MeowValue[] slots = frame.takeTailCallSlots();
+            if (frame.canReuseFor(target)) {
+                frame.reuse(slots);
+            } else {
+                frame = new MeowContext(target.declarationContext(), target.scope(), slots);
+            }
+            block = target.code();
+        }
+    }
+
+    // Switches to compiled code once the body is hot
+    private MeowValue run(MeowContext frame) {
+        MeowCompiledCode compiled = this.compiled;
+        if (compiled != null) {
+            return compiled.invoke(frame);
+        }
+
+        if (MeowCompiler.ENABLED && !compiling && ++invocations >= MeowCompiler.THRESHOLD
+                && COMPILING.compareAndSet(this, false, true)) {
+            compiled = MeowCompiler.compile(this);
+            if (compiled != null) {
+                this.compiled = compiled;
+                return compiled.invoke(frame);
+            }
+        }
+
+        return execute(frame);
+    }
+
+    @Override
+    public MeowValue execute(MeowContext context) {
+        MeowValue result = MeowUnit.UNIT;
+        for (MeowNode node : nodes) {
+            result = node.execute(context);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowScope;
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowIdentifier;
+import org.glavo.meow.ast.MeowLocalIdentifier;
+import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.value.MeowFunction;
+import org.glavo.meow.value.MeowIntegerValue;
+import org.glavo.meow.value.MeowLambda;
+import org.glavo.meow.value.MeowMacro;
+import org.glavo.meow.value.MeowOperator;
+import org.glavo.meow.value.MeowValue;
+
+import java.util.Arrays;
+import java.util.List;
+
+// A call site with a monomorphic inline cache.
+//
+// The first execution specializes the node on the value of the head: calls to lambdas of one lambda form
+// write the arguments straight into the new frame, builtin functions are called without going through apply,
+// arithmetic and comparisons work on unboxed longs until a result has to be stored,
+// `let` binds without re-evaluating through the AST, and `integer` is expanded once into a constant.
+// When the guard fails the node goes generic and stays generic.
+public final class MeowCallNode extends MeowNode {
+
+    static final int UNINITIALIZED = 0;
+    static final int LAMBDA = 1;
+    static final int FUNCTION = 2;
+    static final int OPERATOR = 3;
+    static final int LET = 4;
+    static final int CONSTANT = 5;
+    static final int GENERIC = 6;
+
+    // Immutable, so that a racy read always sees a complete state
+    record State(int kind, MeowValue target, MeowScope scope, MeowBlockNode code, MeowValue constant) {
+        static final State UNINITIALIZED_STATE = new State(UNINITIALIZED, null, null, null, null);
+        static final State GENERIC_STATE = new State(GENERIC, null, null, null, null);
+    }
+
+    private final MeowNode function;
+    private final MeowNode[] arguments;
+    private final List<MeowExpression> argumentExpressions;
+
+    // Null unless the arguments may be evaluated concurrently
+    private final MeowParallel parallel;
+
+    // Null unless profiling
+    private final MeowProfiler.Entry profile;
+
+    private State state = State.UNINITIALIZED_STATE;
+
+    // The last expression of a lambda body, calls to lambdas are handed to MeowBlockNode.call instead of nesting
+    private boolean tail;
+
+    MeowCallNode(MeowExpression head, List<MeowExpression> argumentExpressions) {
+        this.function = compile(head);
+        this.argumentExpressions = List.copyOf(argumentExpressions);
+        this.arguments = new MeowNode[argumentExpressions.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = compile(argumentExpressions.get(i));
+        }
+        this.parallel = MeowParallel.ENABLED ? MeowParallel.of(this.argumentExpressions) : null;
+        this.profile = MeowProfiler.ENABLED ? MeowProfiler.site(head, arguments.length) : null;
+    }
+
+    @Override
+    public MeowValue execute(MeowContext context) {
+        MeowValue target = function.execute(context);
+        if (Meow.DEBUG) {
+            // Keep the logging of MeowFunction.apply and MeowMacro.apply
+            return target.apply(context, argumentExpressions);
+        }
+        if (MeowProfiler.ENABLED) {
+            MeowProfiler.Frame frame = MeowProfiler.enter(profile);
+            try {
+                return dispatch(context, target, state);
+            } finally {
+                MeowProfiler.exit(frame);
+            }
+        }
+        return dispatch(context, target, state);
+    }
+
+    @Override
+    public long executeLong(MeowContext context) throws MeowUnexpectedResultException {
+        State state = this.state;
+        if (state.kind() == OPERATOR && !Meow.DEBUG && !MeowProfiler.ENABLED) {
+            MeowValue target = function.execute(context);
+            if (target == state.target()) {
+                return operate(context, (MeowOperator) target);
+            }
+            return expectLong(dispatch(context, target, state));
+        }
+        return super.executeLong(context);
+    }
+
+    void markTail() {
+        tail = true;
+    }
+
+    boolean isTail() {
+        return tail;
+    }
+
+    MeowNode getFunction() {
+        return function;
+    }
+
+    MeowNode[] getArguments() {
+        return arguments;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    boolean isParallel() {
+        return parallel != null;
+    }
+
+    // Called by compiled code when its guard on the head fails
+    MeowValue executeWith(MeowContext context, MeowValue target) {
+        return dispatch(context, target, state);
+    }
+
+    MeowValue let(MeowContext context, MeowValue value) {
+        MeowParallel.checkLet(context);
+        if (argumentExpressions.getFirst() instanceof MeowLocalIdentifier local) {
+            local.assign(context, value);
+        } else {
+            context.setValue(((MeowIdentifier) argumentExpressions.getFirst()).meow(), value);
+        }
+        return value;
+    }
+
+    private MeowValue dispatch(MeowContext context, MeowValue target, State state) {
+        switch (state.kind()) {
+            case LAMBDA -> {
+                if (target instanceof MeowLambda lambda && lambda.scope() == state.scope()) {
+                    MeowValue[] slots = new MeowValue[lambda.scope().size()];
+                    evaluateArguments(context, slots);
+                    return tail ? context.setTailCall(lambda, slots) : lambda.invoke(slots);
+                }
+            }
+            case FUNCTION -> {
+                if (target == state.target()) {
+                    return ((MeowFunction) target).applyValues(context, evaluateArguments(context));
+                }
+            }
+            case OPERATOR -> {
+                if (target == state.target()) {
+                    try {
+                        return MeowIntegerValue.of(operate(context, (MeowOperator) target));
+                    } catch (MeowUnexpectedResultException e) {
+                        return e.getResult();
+                    }
+                }
+            }
+            case LET -> {
+                if (target == MeowBuiltinMacro.LET) {
+                    return let(context, arguments[1].execute(context));
+                }
+            }
+            case CONSTANT -> {
+                if (target == state.target()) {
+                    return state.constant();
+                }
+            }
+            case GENERIC -> {
+                if (tail && target instanceof MeowLambda lambda
+                    && lambda.scope().getParameterCount() == arguments.length) {
+                    MeowValue[] slots = new MeowValue[lambda.scope().size()];
+                    evaluateArguments(context, slots);
+                    return context.setTailCall(lambda, slots);
+                } else if (target instanceof MeowFunction f) {
+                    return f.applyValues(context, evaluateArguments(context));
+                } else {
+                    return target.apply(context, argumentExpressions);
+                }
+            }
+            default -> {
+            }
+        }
+
+        State newState = specialize(context, target, state);
+        this.state = newState;
+        return dispatch(context, target, newState);
+    }
+
+    private State specialize(MeowContext context, MeowValue target, State oldState) {
+        if (oldState.kind() != UNINITIALIZED) {
+            return State.GENERIC_STATE;
+        }
+
+        if (target instanceof MeowLambda lambda) {
+            return lambda.scope().getParameterCount() == arguments.length
+                    ? new State(LAMBDA, null, lambda.scope(), lambda.code(), null)
+                    : State.GENERIC_STATE;
+        } else if (target instanceof MeowOperator && arguments.length == 2) {
+            return new State(OPERATOR, target, null, null, null);
+        } else if (target instanceof MeowFunction) {
+            return new State(FUNCTION, target, null, null, null);
+        } else if (target == MeowBuiltinMacro.LET) {
+            return arguments.length == 2
+                   && (argumentExpressions.getFirst() instanceof MeowIdentifier
+                       || argumentExpressions.getFirst() instanceof MeowLocalIdentifier)
+                    ? new State(LET, target, null, null, null)
+                    : State.GENERIC_STATE;
+        } else if (target == MeowBuiltinMacro.INTEGER || target == MeowBuiltinMacro.FLOAT) {
+            // Only depends on the expressions, so it can be expanded once
+            return new State(CONSTANT, target, null, null, ((MeowMacro) target).apply(context, argumentExpressions));
+        } else {
+            return State.GENERIC_STATE;
+        }
+    }
+
+    // Anything that is not a long on both sides, and overflows or division by zero, go through applyValues
+    private long operate(MeowContext context, MeowOperator operator) throws MeowUnexpectedResultException {
+        if (parallel != null) {
+            return expectLong(operator.applyValues(context, evaluateArguments(context)));
+        }
+
+        long left;
+        try {
+            left = arguments[0].executeLong(context);
+        } catch (MeowUnexpectedResultException e) {
+            return expectLong(operator.applyValues(context, Arrays.asList(e.getResult(), arguments[1].execute(context))));
+        }
+
+        long right;
+        try {
+            right = arguments[1].executeLong(context);
+        } catch (MeowUnexpectedResultException e) {
+            return expectLong(operator.applyValues(context, Arrays.asList(MeowIntegerValue.of(left), e.getResult())));
+        }
+
+        try {
+            return operator.applyLongs(left, right);
+        } catch (ArithmeticException e) {
+            return expectLong(operator.applyValues(context,
+                    Arrays.asList(MeowIntegerValue.of(left), MeowIntegerValue.of(right))));
+        }
+    }
+
+    private List<MeowValue> evaluateArguments(MeowContext context) {
+        MeowValue[] values = new MeowValue[arguments.length];
+        evaluateArguments(context, values);
+        return Arrays.asList(values);
+    }
+
+    // The array may be longer than the arguments, as for the slots of a frame
+    private void evaluateArguments(MeowContext context, MeowValue[] values) {
+        int evaluated = parallel != null ? parallel.evaluate(context, arguments, values) : 0;
+        for (int i = evaluated; i < arguments.length; i++) {
+            values[i] = arguments[i].execute(context);
+        }
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough of a class file writer for MeowCompiler.
+//
+// Only reference and int values are ever on the stack, and every branch goes forward to a label
+// with an empty stack, so the stack map frames can be written by hand.
+final class MeowClassWriter {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CLASS_FILE_VERSION = 65; // Java 21
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOutput = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndexes = new HashMap<>();
+    private int poolSize = 1;
+
+    private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+    private final DataOutputStream fieldsOutput = new DataOutputStream(fields);
+    private int fieldCount;
+
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+    private final DataOutputStream methodsOutput = new DataOutputStream(methods);
+    private int methodCount;
+
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+
+    MeowClassWriter(String name, String superName, String... interfaceNames) {
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    // region Constant pool
+
+    private int constant(String key, int tag, int... values) {
+        Integer index = poolIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            poolOutput.writeByte(tag);
+            for (int value : values) {
+                poolOutput.writeShort(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        poolIndexes.put(key, poolSize);
+        return poolSize++;
+    }
+
+    int utf8(String value) {
+        Integer index = poolIndexes.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            poolOutput.writeByte(1);
+            poolOutput.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        poolIndexes.put("U" + value, poolSize);
+        return poolSize++;
+    }
+
+    int classRef(String name) {
+        return constant("C" + name, 7, utf8(name));
+    }
+
+    int string(String value) {
+        return constant("S" + value, 8, utf8(value));
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        return constant("N" + name + ":" + descriptor, 12, utf8(name), utf8(descriptor));
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return constant("F" + owner + "." + name + ":" + descriptor, 9, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return constant("M" + owner + "." + name + descriptor, 10, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return constant("I" + owner + "." + name + descriptor, 11, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    // endregion
+
+    void field(int access, String name, String descriptor) {
+        try {
+            fieldsOutput.writeShort(access);
+            fieldsOutput.writeShort(utf8(name));
+            fieldsOutput.writeShort(utf8(descriptor));
+            fieldsOutput.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+    }
+
+    Code method(int access, String name, String descriptor) {
+        return new Code(access, name, descriptor);
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(CLASS_FILE_VERSION);
+            output.writeShort(poolSize);
+            pool.writeTo(output);
+            output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(interfaces.length);
+            for (int index : interfaces) {
+                output.writeShort(index);
+            }
+            output.writeShort(fieldCount);
+            fields.writeTo(output);
+            output.writeShort(methodCount);
+            methods.writeTo(output);
+            output.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static final class Label {
+        private int position = -1;
+        private final List<Integer> branches = new ArrayList<>();
+        private String[] locals;
+    }
+
+    final class Code {
+        private final int access;
+        private final String name;
+        private final String descriptor;
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final List<Label> frames = new ArrayList<>();
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        private Code(int access, String name, String descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxLocals = argumentSlots(descriptor) + ((access & ACC_STATIC) == 0 ? 1 : 0);
+        }
+
+        private void op(int opcode, int stackChange) {
+            code.write(opcode);
+            stack += stackChange;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void u1(int value) {
+            code.write(value);
+        }
+
+        private void u2(int value) {
+            code.write(value >>> 8);
+            code.write(value);
+        }
+
+        void aload(int index) {
+            op(0x19, 1); // aload
+            u1(index);
+            maxLocals = Math.max(maxLocals, index + 1);
+        }
+
+        void astore(int index) {
+            op(0x3A, -1); // astore
+            u1(index);
+            maxLocals = Math.max(maxLocals, index + 1);
+        }
+
+        void iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                op(0x03 + value, 1); // iconst_<n>
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op(0x10, 1); // bipush
+                u1(value);
+            } else {
+                op(0x11, 1); // sipush
+                u2(value);
+            }
+        }
+
+        void ldc(int constant) {
+            op(0x13, 1); // ldc_w
+            u2(constant);
+        }
+
+        void dup() {
+            op(0x59, 1);
+        }
+
+        void pop() {
+            op(0x57, -1);
+        }
+
+        void aastore() {
+            op(0x53, -3);
+        }
+
+        void areturn() {
+            op(0xB0, -1);
+        }
+
+        void vreturn() {
+            op(0xB1, 0);
+        }
+
+        void getstatic(String owner, String name, String descriptor) {
+            op(0xB2, 1);
+            u2(fieldRef(owner, name, descriptor));
+        }
+
+        void putstatic(String owner, String name, String descriptor) {
+            op(0xB3, -1);
+            u2(fieldRef(owner, name, descriptor));
+        }
+
+        void invokevirtual(String owner, String name, String descriptor) {
+            op(0xB6, returnSlots(descriptor) - argumentSlots(descriptor) - 1);
+            u2(methodRef(owner, name, descriptor));
+        }
+
+        void invokespecial(String owner, String name, String descriptor) {
+            op(0xB7, returnSlots(descriptor) - argumentSlots(descriptor) - 1);
+            u2(methodRef(owner, name, descriptor));
+        }
+
+        void invokestatic(String owner, String name, String descriptor) {
+            op(0xB8, returnSlots(descriptor) - argumentSlots(descriptor));
+            u2(methodRef(owner, name, descriptor));
+        }
+
+        void invokeinterface(String owner, String name, String descriptor) {
+            int arguments = argumentSlots(descriptor);
+            op(0xB9, returnSlots(descriptor) - arguments - 1);
+            u2(interfaceMethodRef(owner, name, descriptor));
+            u1(arguments + 1);
+            u1(0);
+        }
+
+        void newObject(String type) {
+            op(0xBB, 1);
+            u2(classRef(type));
+        }
+
+        void anewarray(String type) {
+            op(0xBD, 0);
+            u2(classRef(type));
+        }
+
+        void checkcast(String type) {
+            op(0xC0, 0);
+            u2(classRef(type));
+        }
+
+        void instanceOf(String type) {
+            op(0xC1, 0);
+            u2(classRef(type));
+        }
+
+        void ifeq(Label label) {
+            branch(0x99, -1, label);
+        }
+
+        void ifAcmpne(Label label) {
+            branch(0xA6, -2, label);
+        }
+
+        private void branch(int opcode, int stackChange, Label label) {
+            label.branches.add(code.size());
+            op(opcode, stackChange);
+            u2(0);
+        }
+
+        // Binds the label here. The stack must be empty, and only the given locals survive the jump.
+        void mark(Label label, String... locals) {
+            label.position = code.size();
+            label.locals = locals;
+            frames.add(label);
+            stack = 0;
+        }
+
+        void end() {
+            byte[] bytes = code.toByteArray();
+            for (Label label : frames) {
+                for (int branch : label.branches) {
+                    int offset = label.position - branch;
+                    bytes[branch + 1] = (byte) (offset >>> 8);
+                    bytes[branch + 2] = (byte) offset;
+                }
+            }
+
+            try {
+                ByteArrayOutputStream attribute = new ByteArrayOutputStream();
+                DataOutputStream output = new DataOutputStream(attribute);
+                output.writeShort(maxStack);
+                output.writeShort(maxLocals);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+                output.writeShort(0); // exception table
+                if (frames.isEmpty()) {
+                    output.writeShort(0);
+                } else {
+                    ByteArrayOutputStream table = new ByteArrayOutputStream();
+                    DataOutputStream tableOutput = new DataOutputStream(table);
+                    tableOutput.writeShort(frames.size());
+                    int previous = -1;
+                    for (Label label : frames) {
+                        tableOutput.writeByte(255); // full_frame
+                        tableOutput.writeShort(label.position - previous - 1);
+                        tableOutput.writeShort(label.locals.length);
+                        for (String local : label.locals) {
+                            tableOutput.writeByte(7); // Object_variable_info
+                            tableOutput.writeShort(classRef(local));
+                        }
+                        tableOutput.writeShort(0);
+                        previous = label.position;
+                    }
+
+                    output.writeShort(1);
+                    output.writeShort(utf8("StackMapTable"));
+                    output.writeInt(table.size());
+                    table.writeTo(output);
+                }
+
+                methodsOutput.writeShort(access);
+                methodsOutput.writeShort(utf8(name));
+                methodsOutput.writeShort(utf8(descriptor));
+                methodsOutput.writeShort(1);
+                methodsOutput.writeShort(utf8("Code"));
+                methodsOutput.writeInt(attribute.size());
+                attribute.writeTo(methodsOutput);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            methodCount++;
+        }
+    }
+
+    // Longs and doubles never show up in the descriptors used here, so every argument takes one slot
+    private static int argumentSlots(String descriptor) {
+        int count = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char ch = descriptor.charAt(i);
+            if (ch == '[') {
+                i++;
+                continue;
+            }
+            i = ch == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+            count++;
+        }
+        return count;
+    }
+
+    private static int returnSlots(String descriptor) {
+        return descriptor.endsWith(")V") ? 0 : 1;
+    }
+}
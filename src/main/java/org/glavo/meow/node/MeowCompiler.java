@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowLog;
+import org.glavo.meow.MeowScope;
+import org.glavo.meow.ast.MeowLocalIdentifier;
+import org.glavo.meow.value.MeowUnit;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compiles hot lambda bodies to JVM bytecode.
+//
+// Every node of the body becomes a small static method of a hidden class, and everything the code refers to
+// (nodes, scopes, call targets) is passed as class data and kept in static final fields, so the JIT sees them
+// as constants. Call sites are compiled from the state their node has specialized to: the guard and the fast
+// path are inlined, calls to builtins go straight to applyValues, and calls to other lambdas go straight to
+// the block of their lambda form. When a guard fails, the node of the call site takes over.
+public final class MeowCompiler {
+    static final boolean ENABLED = !Meow.DEBUG && !MeowProfiler.ENABLED && !"false".equals(System.getProperty("meow.jit"));
+    static final int THRESHOLD = Integer.getInteger("meow.jit.threshold", 1000);
+
+    private static final String NAME = "org/glavo/meow/node/MeowCompiledLambda";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String LIST = "java/util/List";
+    private static final String CONTEXT = "org/glavo/meow/MeowContext";
+    private static final String SCOPE = "org/glavo/meow/MeowScope";
+    private static final String VALUE = "org/glavo/meow/value/MeowValue";
+    private static final String FUNCTION = "org/glavo/meow/value/MeowFunction";
+    private static final String LAMBDA = "org/glavo/meow/value/MeowLambda";
+    private static final String NODE = "org/glavo/meow/node/MeowNode";
+    private static final String CALL_NODE = "org/glavo/meow/node/MeowCallNode";
+    private static final String BLOCK_NODE = "org/glavo/meow/node/MeowBlockNode";
+    private static final String COMPILED_CODE = "org/glavo/meow/node/MeowCompiledCode";
+
+    private static final String NODE_DESCRIPTOR = "(L" + CONTEXT + ";)L" + VALUE + ";";
+
+    // Returns null if the block cannot be compiled, it is interpreted then
+    static MeowCompiledCode compile(MeowBlockNode block) {
+        try {
+            MeowCompiler compiler = new MeowCompiler(block);
+            byte[] bytes = compiler.generate();
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytes, List.copyOf(compiler.constants), true);
+            return (MeowCompiledCode) lookup.lookupClass().getConstructor().newInstance();
+        } catch (LinkageError | ReflectiveOperationException e) {
+            // A bug in the generated code, such as a VerifyError, the block keeps being interpreted
+            if (MeowLog.ENABLED) {
+                MeowLog.EVAL.debug("Failed to compile block={}", block, e);
+            }
+            return null;
+        }
+    }
+
+    private final MeowBlockNode block;
+    private final MeowClassWriter writer = new MeowClassWriter(NAME, OBJECT, COMPILED_CODE);
+
+    private final List<Object> constants = new ArrayList<>();
+    private final List<String> constantTypes = new ArrayList<>();
+    private final Map<Object, Integer> constantIndexes = new IdentityHashMap<>();
+    private int methodCount;
+
+    private MeowCompiler(MeowBlockNode block) {
+        this.block = block;
+    }
+
+    private byte[] generate() {
+        MeowNode[] nodes = block.getNodes();
+        String[] methods = new String[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            methods[i] = compileNode(nodes[i]);
+        }
+
+        MeowClassWriter.Code invoke = writer.method(MeowClassWriter.ACC_PUBLIC, "invoke", NODE_DESCRIPTOR);
+        if (methods.length == 0) {
+            getConstant(invoke, MeowUnit.UNIT, VALUE);
+        }
+        for (int i = 0; i < methods.length; i++) {
+            invoke.aload(1);
+            invoke.invokestatic(NAME, methods[i], NODE_DESCRIPTOR);
+            if (i < methods.length - 1) {
+                invoke.pop();
+            }
+        }
+        invoke.areturn();
+        invoke.end();
+
+        MeowClassWriter.Code init = writer.method(MeowClassWriter.ACC_PUBLIC, "<init>", "()V");
+        init.aload(0);
+        init.invokespecial(OBJECT, "<init>", "()V");
+        init.vreturn();
+        init.end();
+
+        // Must come last, every constant has been registered by now
+        MeowClassWriter.Code clinit = writer.method(MeowClassWriter.ACC_STATIC, "<clinit>", "()V");
+        clinit.invokestatic("java/lang/invoke/MethodHandles", "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;");
+        clinit.ldc(writer.string("_"));
+        clinit.ldc(writer.classRef(LIST));
+        clinit.invokestatic("java/lang/invoke/MethodHandles", "classData",
+                "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;");
+        clinit.checkcast(LIST);
+        clinit.astore(0);
+        for (int i = 0; i < constants.size(); i++) {
+            String type = constantTypes.get(i);
+            writer.field(MeowClassWriter.ACC_PRIVATE | MeowClassWriter.ACC_STATIC | MeowClassWriter.ACC_FINAL,
+                    "c" + i, "L" + type + ";");
+            clinit.aload(0);
+            clinit.iconst(i);
+            clinit.invokeinterface(LIST, "get", "(I)L" + OBJECT + ";");
+            clinit.checkcast(type);
+            clinit.putstatic(NAME, "c" + i, "L" + type + ";");
+        }
+        clinit.vreturn();
+        clinit.end();
+
+        return writer.toByteArray();
+    }
+
+    private void getConstant(MeowClassWriter.Code code, Object value, String type) {
+        Integer index = constantIndexes.get(value);
+        if (index == null || !constantTypes.get(index).equals(type)) {
+            index = constants.size();
+            constants.add(value);
+            constantTypes.add(type);
+            constantIndexes.put(value, index);
+        }
+        code.getstatic(NAME, "c" + index, "L" + constantTypes.get(index) + ";");
+    }
+
+    // Compiles the node to a static method taking the frame, and returns the name of the method
+    private String compileNode(MeowNode node) {
+        if (node instanceof MeowCallNode call) {
+            MeowCallNode.State state = call.getState();
+            // Operator sites stay in the tree, where operands and intermediate results are not boxed,
+            // and so do sites that evaluate their arguments concurrently
+            if (state.kind() != MeowCallNode.UNINITIALIZED && state.kind() != MeowCallNode.GENERIC
+                && state.kind() != MeowCallNode.OPERATOR && !call.isParallel()) {
+                return compileCall(call, state);
+            }
+        }
+
+        String name = "e" + methodCount++;
+        MeowClassWriter.Code code = writer.method(MeowClassWriter.ACC_PRIVATE | MeowClassWriter.ACC_STATIC,
+                name, NODE_DESCRIPTOR);
+        if (node instanceof MeowConstantNode constant) {
+            getConstant(code, constant.getValue(), VALUE);
+        } else if (node instanceof MeowReadNode read && isParameter(read)) {
+            // Parameters are always set, so they are read straight from the frame
+            code.aload(0);
+            code.iconst(((MeowLocalIdentifier) read.getIdentifier()).slot());
+            code.invokevirtual(CONTEXT, "getSlot", "(I)L" + VALUE + ";");
+        } else {
+            getConstant(code, node, NODE);
+            code.aload(0);
+            code.invokevirtual(NODE, "execute", NODE_DESCRIPTOR);
+        }
+        code.areturn();
+        code.end();
+        return name;
+    }
+
+    private boolean isParameter(MeowReadNode read) {
+        return read.getIdentifier() instanceof MeowLocalIdentifier local
+               && local.depth() == 0
+               && local.scope() == block.getScope()
+               && local.slot() < local.scope().getParameterCount();
+    }
+
+    private String compileCall(MeowCallNode call, MeowCallNode.State state) {
+        MeowNode[] arguments = call.getArguments();
+        String function = compileNode(call.getFunction());
+        String[] argumentMethods = new String[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            // The target of `let` is never evaluated
+            if (state.kind() != MeowCallNode.LET || i > 0) {
+                argumentMethods[i] = compileNode(arguments[i]);
+            }
+        }
+
+        String name = "e" + methodCount++;
+        MeowClassWriter.Code code = writer.method(MeowClassWriter.ACC_PRIVATE | MeowClassWriter.ACC_STATIC,
+                name, NODE_DESCRIPTOR);
+        MeowClassWriter.Label miss = new MeowClassWriter.Label();
+
+        code.aload(0);
+        code.invokestatic(NAME, function, NODE_DESCRIPTOR);
+        code.astore(1);
+
+        switch (state.kind()) {
+            case MeowCallNode.LAMBDA -> {
+                MeowScope scope = state.scope();
+                code.aload(1);
+                code.instanceOf(LAMBDA);
+                code.ifeq(miss);
+                code.aload(1);
+                code.checkcast(LAMBDA);
+                code.invokevirtual(LAMBDA, "scope", "()L" + SCOPE + ";");
+                getConstant(code, scope, SCOPE);
+                code.ifAcmpne(miss);
+
+                if (call.isTail()) {
+                    code.aload(0);
+                    code.aload(1);
+                    code.checkcast(LAMBDA);
+                    code.iconst(scope.size());
+                    code.anewarray(VALUE);
+                    storeArguments(code, argumentMethods);
+                    code.invokevirtual(CONTEXT, "setTailCall", "(L" + LAMBDA + ";[L" + VALUE + ";)L" + VALUE + ";");
+                } else {
+                    getConstant(code, state.code(), BLOCK_NODE);
+                    code.newObject(CONTEXT);
+                    code.dup();
+                    code.aload(1);
+                    code.checkcast(LAMBDA);
+                    code.invokevirtual(LAMBDA, "declarationContext", "()L" + CONTEXT + ";");
+                    getConstant(code, scope, SCOPE);
+                    code.iconst(scope.size());
+                    code.anewarray(VALUE);
+                    storeArguments(code, argumentMethods);
+                    code.invokespecial(CONTEXT, "<init>", "(L" + CONTEXT + ";L" + SCOPE + ";[L" + VALUE + ";)V");
+                    code.invokevirtual(BLOCK_NODE, "call", NODE_DESCRIPTOR);
+                }
+            }
+            case MeowCallNode.FUNCTION -> {
+                code.aload(1);
+                getConstant(code, state.target(), FUNCTION);
+                code.ifAcmpne(miss);
+
+                getConstant(code, state.target(), FUNCTION);
+                code.aload(0);
+                code.iconst(arguments.length);
+                code.anewarray(VALUE);
+                storeArguments(code, argumentMethods);
+                code.invokestatic("java/util/Arrays", "asList", "([L" + OBJECT + ";)L" + LIST + ";");
+                code.invokeinterface(FUNCTION, "applyValues", "(L" + CONTEXT + ";L" + LIST + ";)L" + VALUE + ";");
+            }
+            case MeowCallNode.LET -> {
+                code.aload(1);
+                getConstant(code, state.target(), VALUE);
+                code.ifAcmpne(miss);
+
+                getConstant(code, call, CALL_NODE);
+                code.aload(0);
+                code.aload(0);
+                code.invokestatic(NAME, argumentMethods[1], NODE_DESCRIPTOR);
+                code.invokevirtual(CALL_NODE, "let", "(L" + CONTEXT + ";L" + VALUE + ";)L" + VALUE + ";");
+            }
+            case MeowCallNode.CONSTANT -> {
+                code.aload(1);
+                getConstant(code, state.target(), VALUE);
+                code.ifAcmpne(miss);
+
+                getConstant(code, state.constant(), VALUE);
+            }
+            default -> throw new AssertionError(state);
+        }
+        code.areturn();
+
+        code.mark(miss, CONTEXT, VALUE);
+        getConstant(code, call, CALL_NODE);
+        code.aload(0);
+        code.aload(1);
+        code.invokevirtual(CALL_NODE, "executeWith", "(L" + CONTEXT + ";L" + VALUE + ";)L" + VALUE + ";");
+        code.areturn();
+        code.end();
+        return name;
+    }
+
+    // Fills the array on top of the stack with the values of the arguments
+    private static void storeArguments(MeowClassWriter.Code code, String[] argumentMethods) {
+        for (int i = 0; i < argumentMethods.length; i++) {
+            code.dup();
+            code.iconst(i);
+            code.aload(0);
+            code.invokestatic(NAME, argumentMethods[i], NODE_DESCRIPTOR);
+            code.aastore();
+        }
+    }
+}
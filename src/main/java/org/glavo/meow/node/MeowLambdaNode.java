@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.ast.MeowLambdaExpression;
+import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.value.MeowLambda;
+import org.glavo.meow.value.MeowValue;
+
+// The body is compiled once here and shared by every closure created from this form,
+// so its call sites stay warm across closures.
+public final class MeowLambdaNode extends MeowNode {
+    private final MeowLambdaExpression expression;
+    private final MeowNode head;
+    private final MeowBlockNode code;
+
+    MeowLambdaNode(MeowLambdaExpression expression) {
+        this.expression = expression;
+        this.head = compile(expression.head());
+        this.code = compileBlock(expression.scope(), expression.body());
+    }
+
+    @Override
+    public MeowValue execute(MeowContext context) {
+        MeowValue function = head.execute(context);
+        if (function == MeowBuiltinMacro.LAMBDA) {
+            return new MeowLambda(context, expression.scope(), expression.body(), code);
+        }
+
+        return function.apply(context, expression.arguments());
+    }
+}
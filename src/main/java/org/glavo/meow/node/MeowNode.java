@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowScope;
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.ast.MeowIdentifier;
+import org.glavo.meow.ast.MeowLambdaExpression;
+import org.glavo.meow.ast.MeowLocalIdentifier;
+import org.glavo.meow.ast.MeowRichText;
+import org.glavo.meow.value.MeowIntegerValue;
+import org.glavo.meow.value.MeowText;
+import org.glavo.meow.value.MeowUnit;
+import org.glavo.meow.value.MeowValue;
+
+import java.util.List;
+
+// The execution tree. It is compiled from resolved expressions, and its nodes specialize themselves
+// on what they see during the first execution.
+public abstract class MeowNode {
+
+    public static MeowNode compile(MeowExpression expression) {
+        return switch (expression) {
+            case MeowExpressionList(List<MeowExpression> nodes) -> nodes.isEmpty()
+                    ? new MeowConstantNode(MeowUnit.UNIT)
+                    : new MeowCallNode(nodes.getFirst(), nodes.subList(1, nodes.size()));
+            case MeowLambdaExpression lambda -> new MeowLambdaNode(lambda);
+            // Text values are immutable, so every evaluation can share one
+            case MeowRichText richText -> new MeowConstantNode(MeowText.of(richText.content()));
+            case MeowIdentifier identifier -> new MeowReadNode(identifier);
+            case MeowLocalIdentifier identifier -> new MeowReadNode(identifier);
+        };
+    }
+
+    public static MeowBlockNode compileBlock(MeowScope scope, List<MeowExpression> body) {
+        MeowNode[] nodes = new MeowNode[body.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = compile(body.get(i));
+        }
+        if (nodes.length > 0 && nodes[nodes.length - 1] instanceof MeowCallNode call) {
+            call.markTail();
+        }
+        return new MeowBlockNode(scope, nodes);
+    }
+
+    public abstract MeowValue execute(MeowContext context);
+
+    // For callers that can keep a long result unboxed, any other result is handed over in the exception
+    public long executeLong(MeowContext context) throws MeowUnexpectedResultException {
+        return expectLong(execute(context));
+    }
+
+    static long expectLong(MeowValue value) throws MeowUnexpectedResultException {
+        if (value instanceof MeowIntegerValue(long result)) {
+            return result;
+        }
+        throw new MeowUnexpectedResultException(value);
+    }
+}
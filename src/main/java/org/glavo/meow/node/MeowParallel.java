@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.ast.MeowIdentifier;
+import org.glavo.meow.ast.MeowLambdaExpression;
+import org.glavo.meow.value.MeowBuiltinFunction;
+import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.value.MeowBuiltins;
+import org.glavo.meow.value.MeowValue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Evaluates the arguments of a call site concurrently on a fork-join pool.
+//
+// A site takes part when at least two of its arguments may call lambdas, and when no argument is impure by itself:
+// none refers to `print`, `readline`, `spawn` or `await`, or binds with `let` in the frame of the call. The functions
+// an argument calls are only known at run time, so forking is speculative. Effects reached in a forked argument abort
+// it through checkEffect and checkLet. The arguments before it keep their values, the caller evaluates the others
+// in order, and the site goes back to evaluating all of its arguments in order for good.
+public final class MeowParallel {
+
+    static final boolean ENABLED = !Meow.DEBUG
+                                   && !MeowProfiler.ENABLED
+                                   && !"false".equals(System.getProperty("meow.parallel"))
+                                   && Runtime.getRuntime().availableProcessors() > 1;
+
+    // A site called from outside the pool stops forking after this many calls that were cheaper than the threshold.
+    // It still forks one call in every PROBE_INTERVAL, and starts forking again once that call is expensive.
+    private static final long THRESHOLD = TimeUnit.MICROSECONDS.toNanos(Long.getLong("meow.parallel.threshold", 200));
+    private static final int MAX_CHEAP_RUNS = 16;
+    private static final int PROBE_INTERVAL = 1024; // A power of two
+
+    // Inside the pool, the arguments are evaluated in place while this many forked tasks are waiting to be stolen
+    private static final int MAX_SURPLUS = 3;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // The frame whose arguments the current task is evaluating, `let` must not bind in it
+    private static final ThreadLocal<MeowContext> REGION = new ThreadLocal<>();
+
+    private static final Set<Meow> BUILTINS = new HashSet<>();
+
+    static {
+        MeowBuiltins.forEach((meow, builtin) -> BUILTINS.add(meow));
+    }
+
+    // Returns null if the arguments should always be evaluated in order
+    static MeowParallel of(List<MeowExpression> arguments) {
+        boolean[] forked = new boolean[arguments.size()];
+        int heavy = 0;
+        for (int i = 0; i < forked.length; i++) {
+            MeowExpression argument = arguments.get(i);
+            if (!isPure(argument, false)) {
+                return null;
+            }
+            // The first heavy argument is evaluated by the forking thread
+            if (isHeavy(argument) && heavy++ > 0) {
+                forked[i] = true;
+            }
+        }
+        return heavy >= 2 ? new MeowParallel(forked) : null;
+    }
+
+    // Whether evaluating the expression has no effect outside of the frames it creates.
+    // In a lambda body `let` binds in the frame of the invocation, so it only counts outside of bodies.
+    private static boolean isPure(MeowExpression expression, boolean inBody) {
+        return switch (expression) {
+            case MeowIdentifier(Meow meow) -> !meow.equals(MeowBuiltinFunction.PRINT.getMeow())
+                                              && !meow.equals(MeowBuiltinFunction.readline.getMeow())
+                                              && !meow.equals(MeowBuiltinFunction.SPAWN.getMeow())
+                                              && !meow.equals(MeowBuiltinFunction.AWAIT.getMeow());
+            case MeowLambdaExpression lambda -> isPure(lambda.head(), inBody)
+                                                && lambda.body().stream().allMatch(it -> isPure(it, true));
+            case MeowExpressionList(List<MeowExpression> nodes) -> {
+                if (!inBody && !nodes.isEmpty()
+                    && nodes.getFirst() instanceof MeowIdentifier(Meow meow)
+                    && meow.equals(MeowBuiltinMacro.LET.getMeow())) {
+                    yield false;
+                }
+                yield nodes.stream().allMatch(it -> isPure(it, inBody));
+            }
+            default -> true;
+        };
+    }
+
+    // Whether the expression may call something other than a builtin
+    private static boolean isHeavy(MeowExpression expression) {
+        if (!(expression instanceof MeowExpressionList(List<MeowExpression> nodes)) || nodes.isEmpty()) {
+            return false;
+        }
+        if (nodes.getFirst() instanceof MeowIdentifier(Meow meow) && BUILTINS.contains(meow)) {
+            return nodes.stream().skip(1).anyMatch(MeowParallel::isHeavy);
+        }
+        return true;
+    }
+
+    public static void checkEffect() {
+        if (ForkJoinTask.getPool() == POOL) {
+            throw SpeculationException.INSTANCE;
+        }
+    }
+
+    public static void checkLet(MeowContext context) {
+        if (ForkJoinTask.getPool() == POOL && REGION.get() == context) {
+            throw SpeculationException.INSTANCE;
+        }
+    }
+
+    private final boolean[] forked;
+
+    // Sites are shared by every thread that evaluates the same code, including pool workers
+    private volatile boolean disabled;
+    private final AtomicInteger cheapRuns = new AtomicInteger();
+    private final AtomicInteger skippedRuns = new AtomicInteger();
+
+    private MeowParallel(boolean[] forked) {
+        this.forked = forked;
+    }
+
+    // Returns how many leading arguments have their values in the array, the caller evaluates the others in order
+    int evaluate(MeowContext context, MeowNode[] arguments, MeowValue[] values) {
+        if (disabled) {
+            return 0;
+        }
+
+        Result result;
+        if (ForkJoinTask.getPool() == POOL) {
+            if (ForkJoinTask.getSurplusQueuedTaskCount() > MAX_SURPLUS) {
+                return 0;
+            }
+            result = fork(context, arguments, values);
+        } else {
+            if (cheapRuns.get() >= MAX_CHEAP_RUNS
+                && (skippedRuns.incrementAndGet() & (PROBE_INTERVAL - 1)) != 0) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            result = POOL.invoke(ForkJoinTask.adapt(() -> fork(context, arguments, values)));
+            if (System.nanoTime() - start < THRESHOLD) {
+                cheapRuns.incrementAndGet();
+            } else {
+                cheapRuns.set(0);
+            }
+        }
+
+        if (result.aborted()) {
+            disabled = true;
+        }
+        if (result.failure() instanceof RuntimeException e) {
+            throw e;
+        }
+        if (result.failure() instanceof Error e) {
+            throw e;
+        }
+        return result.evaluated();
+    }
+
+    // The arguments before evaluated have their values. If failure is not null, it is what the next one threw.
+    // Otherwise the next one reached an effect, or was not evaluated because an argument after it failed.
+    // Failures are handed back rather than thrown, because ForkJoinTask wraps exceptions that cross threads.
+    private record Result(int evaluated, Throwable failure, boolean aborted) {
+    }
+
+    private Result fork(MeowContext context, MeowNode[] arguments, MeowValue[] values) {
+        ArgumentTask[] tasks = new ArgumentTask[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            if (forked[i]) {
+                tasks[i] = new ArgumentTask(context, arguments[i], values, i);
+                tasks[i].fork();
+            }
+        }
+
+        // What each argument threw, or SpeculationException.INSTANCE if it reached an effect
+        Throwable[] failures = new Throwable[arguments.length];
+        int failureIndex = arguments.length;
+        for (int i = 0; i < arguments.length; i++) {
+            if (!forked[i]) {
+                failures[i] = evaluate(context, arguments[i], values, i);
+                if (failures[i] != null) {
+                    failureIndex = i;
+                    break;
+                }
+            }
+        }
+
+        // Every task has to be finished before the array is handed back.
+        // Only the tasks after a failure may be cancelled, the values before it are kept.
+        for (int i = tasks.length - 1; i >= 0; i--) {
+            ArgumentTask task = tasks[i];
+            if (task == null) {
+                continue;
+            }
+            if (i > failureIndex) {
+                task.cancel(false);
+            }
+            try {
+                task.join();
+            } catch (CancellationException e) {
+                // Cancelled before it started
+                continue;
+            }
+            failures[i] = task.failure;
+        }
+
+        boolean aborted = false;
+        for (Throwable failure : failures) {
+            aborted |= failure == SpeculationException.INSTANCE;
+        }
+        // Every argument up to failureIndex was evaluated, so the first failure is at or before it
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] != null) {
+                return new Result(i, failures[i] != SpeculationException.INSTANCE ? failures[i] : null, aborted);
+            }
+        }
+        return new Result(arguments.length, null, aborted);
+    }
+
+    private static Throwable evaluate(MeowContext context, MeowNode argument, MeowValue[] values, int index) {
+        MeowContext region = REGION.get();
+        REGION.set(context);
+        try {
+            values[index] = argument.execute(context);
+            return null;
+        } catch (SpeculationException e) {
+            return SpeculationException.INSTANCE;
+        } catch (RuntimeException | Error e) {
+            return e;
+        } finally {
+            REGION.set(region);
+        }
+    }
+
+    private static final class ArgumentTask extends RecursiveAction {
+        private final MeowContext context;
+        private final MeowNode argument;
+        private final MeowValue[] values;
+        private final int index;
+
+        // Read after join(), which orders it after the write
+        private Throwable failure;
+
+        ArgumentTask(MeowContext context, MeowNode argument, MeowValue[] values, int index) {
+            this.context = context;
+            this.argument = argument;
+            this.values = values;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            failure = evaluate(context, argument, values, index);
+        }
+    }
+
+    private static final class SpeculationException extends RuntimeException {
+        static final SpeculationException INSTANCE = new SpeculationException();
+
+        private SpeculationException() {
+            super(null, null, false, false);
+        }
+    }
+}
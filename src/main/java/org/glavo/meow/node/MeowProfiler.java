@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.ast.MeowExpression;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts calls, wall time and allocated bytes of every call site and every paragraph, enabled by `meow --profile`.
+//
+// Call sites are profiled in MeowCallNode, so the specialized paths that skip MeowFunction.apply and
+// MeowMacro.apply are covered as well. They are labelled with the head of the call and the paragraph they are in.
+// Exclusive numbers leave out the call sites below, inclusive numbers count a recursive site only once.
+// A lambda called in tail position runs after its call site returned, so it is counted in the enclosing call.
+// The JIT and concurrent arguments are disabled while profiling, and the report goes to stderr at exit.
+// When profiling is off, ENABLED is a constant false and the checks are compiled away.
+public final class MeowProfiler {
+    public static final boolean ENABLED = !Meow.DEBUG && Boolean.getBoolean("meow.profile");
+
+    private static final int LIMIT = Integer.getInteger("meow.profile.limit", 50);
+    private static final com.sun.management.ThreadMXBean THREADS;
+
+    private static final ConcurrentLinkedQueue<Entry> PARAGRAPHS = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<Entry> SITES = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<ThreadState> STATE = ThreadLocal.withInitial(ThreadState::new);
+
+    static {
+        com.sun.management.ThreadMXBean threads = null;
+        if (ENABLED && ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            threads = bean;
+        }
+        THREADS = threads;
+
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> report(System.err), "meow-profiler"));
+        }
+    }
+
+    public static final class Entry {
+        private final String label;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder inclusiveNanos = new LongAdder();
+        private final LongAdder exclusiveNanos = new LongAdder();
+        private final LongAdder inclusiveBytes = new LongAdder();
+        private final LongAdder exclusiveBytes = new LongAdder();
+
+        private Entry(String label) {
+            this.label = label;
+        }
+    }
+
+    public static final class Frame {
+        private final Entry entry;
+        private final Frame parent;
+        private final long startNanos;
+        private final long startBytes;
+        private long childNanos;
+        private long childBytes;
+
+        private Frame(Entry entry, Frame parent, long startNanos, long startBytes) {
+            this.entry = entry;
+            this.parent = parent;
+            this.startNanos = startNanos;
+            this.startBytes = startBytes;
+        }
+    }
+
+    private static final class ThreadState {
+        Frame top;
+        String document = "program";
+        int paragraph;
+        // How often every entry is on the stack of this thread
+        final IdentityHashMap<Entry, int[]> active = new IdentityHashMap<>();
+    }
+
+    static Entry site(MeowExpression head, int arguments) {
+        ThreadState state = STATE.get();
+        String name = head.toDebugString();
+        if (name.length() > 40) {
+            name = name.substring(0, 37) + "...";
+        }
+        Entry entry = new Entry("(" + name + (arguments > 0 ? " ..." : "") + ") at " + state.document + ":" + state.paragraph);
+        SITES.add(entry);
+        return entry;
+    }
+
+    public static void beginDocument(String document) {
+        ThreadState state = STATE.get();
+        state.document = document;
+        state.paragraph = 0;
+    }
+
+    // The call sites compiled until the next paragraph are labelled with this one
+    public static Frame enterParagraph() {
+        ThreadState state = STATE.get();
+        Entry entry = new Entry(state.document + ":" + ++state.paragraph);
+        PARAGRAPHS.add(entry);
+        return enter(entry);
+    }
+
+    public static Frame enter(Entry entry) {
+        ThreadState state = STATE.get();
+        state.active.computeIfAbsent(entry, k -> new int[1])[0]++;
+        Frame frame = new Frame(entry, state.top, System.nanoTime(), allocatedBytes());
+        state.top = frame;
+        return frame;
+    }
+
+    public static void exit(Frame frame) {
+        long nanos = System.nanoTime() - frame.startNanos;
+        long bytes = allocatedBytes() - frame.startBytes;
+
+        ThreadState state = STATE.get();
+        state.top = frame.parent;
+        if (frame.parent != null) {
+            frame.parent.childNanos += nanos;
+            frame.parent.childBytes += bytes;
+        }
+
+        Entry entry = frame.entry;
+        entry.calls.increment();
+        entry.exclusiveNanos.add(nanos - frame.childNanos);
+        entry.exclusiveBytes.add(bytes - frame.childBytes);
+        if (--state.active.get(entry)[0] == 0) {
+            state.active.remove(entry);
+            entry.inclusiveNanos.add(nanos);
+            entry.inclusiveBytes.add(bytes);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    public static void report(PrintStream out) {
+        report(out, "Paragraphs", PARAGRAPHS);
+        report(out, "Call sites", SITES);
+        out.flush();
+    }
+
+    private static void report(PrintStream out, String title, ConcurrentLinkedQueue<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.calls.sum() > 0) {
+                sorted.add(entry);
+            }
+        }
+        sorted.sort(Comparator.comparingLong((Entry entry) -> entry.exclusiveNanos.sum()).reversed());
+
+        out.printf("%n%s (%d, sorted by exclusive time)%n", title, sorted.size());
+        out.printf("%12s %12s %12s %14s %14s  %s%n", "calls", "incl ms", "excl ms", "incl KiB", "excl KiB", "");
+        for (int i = 0; i < Math.min(sorted.size(), LIMIT); i++) {
+            Entry entry = sorted.get(i);
+            out.printf("%12d %12.3f %12.3f %14.1f %14.1f  %s%n",
+                    entry.calls.sum(),
+                    entry.inclusiveNanos.sum() / 1e6,
+                    entry.exclusiveNanos.sum() / 1e6,
+                    entry.inclusiveBytes.sum() / 1024.0,
+                    entry.exclusiveBytes.sum() / 1024.0,
+                    entry.label);
+        }
+        if (sorted.size() > LIMIT) {
+            out.printf("%12s more, see -Dmeow.profile.limit%n", sorted.size() - LIMIT);
+        }
+    }
+
+    private MeowProfiler() {
+    }
+}
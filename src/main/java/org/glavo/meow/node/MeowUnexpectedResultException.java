@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.value.MeowValue;
+
+// Thrown by MeowNode.executeLong when the result is not a long. It carries the result, and has no stack trace
+// because it is part of the normal control flow.
+public final class MeowUnexpectedResultException extends Exception {
+    private final MeowValue result;
+
+    public MeowUnexpectedResultException(MeowValue result) {
+        super(null, null, false, false);
+        this.result = result;
+    }
+
+    public MeowValue getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowHighlight;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.glavo.meow.MeowUtils.checkArgsCount;
+
+public enum MeowArithmeticOperator implements MeowOperator {
+    ADD("add", 0x00B050) {
+        @Override
+        public long applyLongs(long left, long right) {
+            return Math.addExact(left, right);
+        }
+
+        @Override
+        double applyDoubles(double left, double right) {
+            return left + right;
+        }
+
+        @Override
+        BigInteger applyBigIntegers(BigInteger left, BigInteger right) {
+            return left.add(right);
+        }
+    },
+    SUBTRACT("subtract", 0xC00000) {
+        @Override
+        public long applyLongs(long left, long right) {
+            return Math.subtractExact(left, right);
+        }
+
+        @Override
+        double applyDoubles(double left, double right) {
+            return left - right;
+        }
+
+        @Override
+        BigInteger applyBigIntegers(BigInteger left, BigInteger right) {
+            return left.subtract(right);
+        }
+    },
+    MULTIPLY("multiply", 0xFFC000) {
+        @Override
+        public long applyLongs(long left, long right) {
+            return Math.multiplyExact(left, right);
+        }
+
+        @Override
+        double applyDoubles(double left, double right) {
+            return left * right;
+        }
+
+        @Override
+        BigInteger applyBigIntegers(BigInteger left, BigInteger right) {
+            return left.multiply(right);
+        }
+    },
+    DIVIDE("divide", 0x0070C0) {
+        @Override
+        public long applyLongs(long left, long right) {
+            return Math.divideExact(left, right);
+        }
+
+        @Override
+        double applyDoubles(double left, double right) {
+            return left / right;
+        }
+
+        @Override
+        BigInteger applyBigIntegers(BigInteger left, BigInteger right) {
+            return left.divide(checkDivisor(right));
+        }
+    },
+    REMAINDER("remainder", 0x7030A0) {
+        @Override
+        public long applyLongs(long left, long right) {
+            return left % right;
+        }
+
+        @Override
+        double applyDoubles(double left, double right) {
+            return left % right;
+        }
+
+        @Override
+        BigInteger applyBigIntegers(BigInteger left, BigInteger right) {
+            return left.remainder(checkDivisor(right));
+        }
+    };
+
+    private final String name;
+    private final Meow meow;
+
+    MeowArithmeticOperator(String name, int color) {
+        this.name = name;
+        this.meow = Meow.builtin(color, MeowHighlight.YELLOW);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Meow getMeow() {
+        return meow;
+    }
+
+    @Override
+    public abstract long applyLongs(long left, long right);
+
+    abstract double applyDoubles(double left, double right);
+
+    abstract BigInteger applyBigIntegers(BigInteger left, BigInteger right);
+
+    @Override
+    public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+        checkArgsCount(args, 2);
+        MeowNumber left = MeowNumber.of(args.get(0));
+        MeowNumber right = MeowNumber.of(args.get(1));
+        if (left instanceof MeowIntegerValue(long l) && right instanceof MeowIntegerValue(long r)) {
+            try {
+                return MeowIntegerValue.of(applyLongs(l, r));
+            } catch (ArithmeticException ignored) {
+                // Overflow, or a zero divisor which is reported by the BigInteger path
+            }
+        }
+
+        if (left instanceof MeowFloatValue || right instanceof MeowFloatValue) {
+            return new MeowFloatValue(applyDoubles(left.toDouble(), right.toDouble()));
+        }
+        return MeowBigIntegerValue.of(applyBigIntegers(left.toBigInteger(), right.toBigInteger()));
+    }
+
+    private static BigInteger checkDivisor(BigInteger divisor) {
+        if (divisor.signum() == 0) {
+            throw new IllegalArgumentException("Division by zero");
+        }
+        return divisor;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.MeowContext;
+
+import java.math.BigInteger;
+
+// Only holds values out of the range of long, smaller ones are always MeowIntegerValue
+public record MeowBigIntegerValue(BigInteger value) implements MeowNumber {
+
+    public static MeowNumber of(BigInteger value) {
+        return value.bitLength() < Long.SIZE
+                ? MeowIntegerValue.of(value.longValue())
+                : new MeowBigIntegerValue(value);
+    }
+
+    @Override
+    public BigInteger toBigInteger() {
+        return value;
+    }
+
+    @Override
+    public double toDouble() {
+        return value.doubleValue();
+    }
+
+    @Override
+    public String toDisplayString(MeowContext context) {
+        return value.toString();
+    }
+}
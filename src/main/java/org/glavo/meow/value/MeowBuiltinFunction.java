@@ -16,30 +16,24 @@
  */
 package org.glavo.meow.value;
 
-import kala.ansi.AnsiString;
-import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import org.apache.poi.xwpf.usermodel.XWPFPicture;
-import org.apache.poi.xwpf.usermodel.XWPFPictureData;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
 import org.glavo.meow.Meow;
+import org.glavo.meow.MeowAnsiRenderer;
 import org.glavo.meow.MeowContext;
-import org.glavo.meow.MeowUtils;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.STHighlightColor;
-
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import org.glavo.meow.MeowHighlight;
+import org.glavo.meow.MeowImageRenderer;
+import org.glavo.meow.MeowLog;
+import org.glavo.meow.node.MeowParallel;
+
 import java.util.List;
 
+import static org.glavo.meow.MeowUtils.checkArgsCount;
+
 @SuppressWarnings("resource")
 public enum MeowBuiltinFunction implements MeowFunction {
     PRINT("print", 0xEE0000) {
         @Override
         public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            MeowParallel.checkEffect();
             StringBuilder builder = new StringBuilder();
 
             boolean first = true;
@@ -50,74 +44,26 @@ public enum MeowBuiltinFunction implements MeowFunction {
                     builder.append('\n');
                 }
 
-                if (value instanceof MeowText(List<XWPFRun> content)) {
-                    for (XWPFRun node : content) {
-                        var text = AnsiString.ofPlain(node.text());
-                        if (!text.isEmpty()) {
-                            if (node.isBold()) {
-                                text = text.overlay(AnsiString.Bold.On);
-                            }
-                            if (node.getUnderline() != UnderlinePatterns.NONE) {
-                                text = text.overlay(AnsiString.Underlined.On);
-                            }
-                            if (node.getColor() != null) {
-                                int rgb = Integer.parseInt(node.getColor(), 16);
-                                if (rgb != 0) {
-                                    text = text.overlay(AnsiString.Color.True(rgb >> 16, (rgb >> 8) & 0xFF, rgb & 0xFF));
-                                }
-                            }
-                            if (node.getTextHighlightColor() != STHighlightColor.NONE) {
-                                AnsiString.Attribute backgroundColor = MeowUtils.attributeOf(node.getTextHighlightColor());
-                                if (backgroundColor != null) {
-                                    text = text.overlay(backgroundColor);
-                                }
-                            }
-
-                            if (node.isItalic()) {
-                                // Why Kala Ansi unsupported Italic?
-                                builder.append("\u001B[3m");
-                            }
-
-                            builder.append(text);
-
-                            if (node.isItalic()) {
-                                // Why Kala Ansi unsupported Italic?
-                                builder.append("\u001b[0m");
-                            }
-                        }
-
-                        for (XWPFPicture picture : node.getEmbeddedPictures()) {
-                            XWPFPictureData pictureData = picture.getPictureData();
-                            byte[] data = pictureData.getData();
-                            BufferedImage image;
-                            try {
-                                image = ImageIO.read(new ByteArrayInputStream(data));
-                            } catch (IOException e) {
-                                throw new UncheckedIOException(e);
-                            }
+                if (value instanceof MeowText content) {
+                    content.forEachSpan((plain, style, pictures) -> {
+                        MeowAnsiRenderer.appendText(builder, plain, style);
 
+                        for (byte[] data : pictures) {
                             if (!builder.isEmpty() && builder.charAt(builder.length() - 1) != '\n') {
                                 builder.append("\n");
                             }
-
-                            // TODO: Scale image to fit terminal width
-                            for (int y = 0; y * 2 < image.getHeight(); y++) {
-                                for (int x = 0; x < image.getWidth(); x++) {
-                                    MeowUtils.appendTrueRgbEscape(builder, false, image.getRGB(x, y * 2));
-                                    MeowUtils.appendTrueRgbEscape(builder, true, image.getRGB(x, y * 2 + 1));
-                                    builder.append('▀');
-                                }
-
-                                builder.append("\u001b[0m\n");
-                            }
+                            MeowImageRenderer.appendImage(builder, data, context.getTerminal().getWidth());
                         }
-                    }
+                    });
                 } else {
                     builder.append(value.toDisplayString(context));
                 }
             }
 
-            context.getTerminal().writer().println(builder);
+            if (MeowLog.ENABLED) {
+                MeowLog.BUILTINS.trace("print values={} chars={}", args::size, builder::length);
+            }
+            context.getOutput().println(builder);
             return MeowUnit.UNIT;
         }
     },
@@ -125,20 +71,167 @@ public enum MeowBuiltinFunction implements MeowFunction {
     readline("readline", 0x00B0F0) {
         @Override
         public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            MeowParallel.checkEffect();
+            // The prompt must not overtake what was printed before
+            context.getOutput().flush();
+
             String result;
-            if (args.isEmpty()) {
-                result = context.getReader().readLine();
-            } else if (args.size() == 1) {
-                if (args.getFirst() instanceof MeowText prompt) {
-                    result = context.getReader().readLine(prompt.toDisplayString(context));
+            // The reader may be shared by several documents or threads, and a line goes to one of them
+            synchronized (context.getReader()) {
+                if (args.isEmpty()) {
+                    result = context.getReader().readLine();
+                } else if (args.size() == 1) {
+                    if (args.getFirst() instanceof MeowText prompt) {
+                        result = context.getReader().readLine(prompt.toDisplayString(context));
+                    } else {
+                        throw new IllegalArgumentException("Expected a single text argument for prompt, but got: " + args.getFirst().toDisplayString(context));
+                    }
                 } else {
-                    throw new IllegalArgumentException("Expected a single text argument for prompt, but got: " + args.getFirst().toDisplayString(context));
+                    throw new IllegalArgumentException("Expected 0 or 1 arguments, but got: " + args.size());
                 }
-            } else {
-                throw new IllegalArgumentException("Expected 0 or 1 arguments, but got: " + args.size());
             }
 
-            return new MeowText(List.of(MeowUtils.toXWPFRun(result)));
+            if (MeowLog.ENABLED) {
+                String line = result;
+                MeowLog.BUILTINS.debug("readline line={}", () -> line);
+            }
+            return MeowText.of(result);
+        }
+    },
+
+    LIST("list", 0x4472C4) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            return MeowList.of(args);
+        }
+    },
+    AT("at", 0xED7D31) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            checkArgsCount(args, 2);
+            return toList(args.get(0)).get(toIndex(args.get(1)));
+        }
+    },
+    LENGTH("length", 0xA5A5A5) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            checkArgsCount(args, 1);
+            if (args.getFirst() instanceof MeowText text) {
+                return MeowIntegerValue.of(text.length());
+            } else if (args.getFirst() instanceof MeowMap map) {
+                return MeowIntegerValue.of(map.size());
+            }
+            return MeowIntegerValue.of(toList(args.getFirst()).size());
+        }
+    },
+    APPEND("append", 0x70AD47) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            if (args.isEmpty()) {
+                throw new IllegalArgumentException("Expected at least 1 argument, but got 0");
+            }
+            MeowList list = toList(args.getFirst());
+            for (int i = 1; i < args.size(); i++) {
+                list = list.append(args.get(i));
+            }
+            return list;
+        }
+    },
+    SLICE("slice", 0x5B9BD5) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            if (args.size() != 2 && args.size() != 3) {
+                throw new IllegalArgumentException("Expected 2 or 3 arguments, but got " + args.size() + ": " + args);
+            }
+            int start = toIndex(args.get(1));
+            if (args.getFirst() instanceof MeowText text) {
+                return text.slice(start, args.size() == 3 ? toIndex(args.get(2)) : text.length());
+            }
+            MeowList list = toList(args.getFirst());
+            int end = args.size() == 3 ? toIndex(args.get(2)) : list.size();
+            return list.slice(start, end);
+        }
+    },
+
+    MAP("map", 0x2F5597) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            if (args.size() % 2 != 0) {
+                throw new IllegalArgumentException("Expected keys and values in pairs, but got " + args.size() + " arguments");
+            }
+            MeowMap.Builder builder = new MeowMap.Builder();
+            for (int i = 0; i < args.size(); i += 2) {
+                builder.put(MeowMap.keyOf(args.get(i)), args.get(i + 1));
+            }
+            return builder.build();
+        }
+    },
+    GET("get", 0xC55A11) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            if (args.size() != 2 && args.size() != 3) {
+                throw new IllegalArgumentException("Expected 2 or 3 arguments, but got " + args.size() + ": " + args);
+            }
+            MeowValue value = toMap(args.getFirst()).get(MeowMap.keyOf(args.get(1)));
+            if (value != null) {
+                return value;
+            }
+            return args.size() == 3 ? args.get(2) : MeowUnit.UNIT;
+        }
+    },
+    ASSOC("assoc", 0x548235) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            if (args.size() % 2 != 1) {
+                throw new IllegalArgumentException("Expected a map followed by keys and values in pairs, but got " + args);
+            }
+            MeowMap map = toMap(args.getFirst());
+            if (args.size() == 3) {
+                return map.assoc(MeowMap.keyOf(args.get(1)), args.get(2));
+            }
+            MeowMap.Builder builder = new MeowMap.Builder(map);
+            for (int i = 1; i < args.size(); i += 2) {
+                builder.put(MeowMap.keyOf(args.get(i)), args.get(i + 1));
+            }
+            return builder.build();
+        }
+    },
+    DISSOC("dissoc", 0x843C0C) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            if (args.isEmpty()) {
+                throw new IllegalArgumentException("Expected at least 1 argument, but got 0");
+            }
+            MeowMap map = toMap(args.getFirst());
+            for (int i = 1; i < args.size(); i++) {
+                map = map.dissoc(MeowMap.keyOf(args.get(i)));
+            }
+            return map;
+        }
+    },
+
+    SPAWN("spawn", 0xBF9000) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            // The spawned thread is outside of any speculation
+            MeowParallel.checkEffect();
+            if (args.isEmpty() || !(args.getFirst() instanceof MeowFunction function)) {
+                throw new IllegalArgumentException("Expected a function followed by its arguments, but got " + args);
+            }
+            if (MeowLog.ENABLED) {
+                MeowLog.BUILTINS.debug("spawn function={} args={}", function::getName, () -> args.size() - 1);
+            }
+            return MeowFuture.spawn(context, function, List.copyOf(args.subList(1, args.size())));
+        }
+    },
+    AWAIT("await", 0x7F6000) {
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            checkArgsCount(args, 1);
+            if (!(args.getFirst() instanceof MeowFuture future)) {
+                throw new IllegalArgumentException("Expected a future, but got " + args.getFirst());
+            }
+            return future.await();
         }
     };
 
@@ -147,7 +240,7 @@ public enum MeowBuiltinFunction implements MeowFunction {
 
     MeowBuiltinFunction(String name, int color) {
         this.name = name;
-        this.meow = Meow.builtin(color, STHighlightColor.YELLOW);
+        this.meow = Meow.builtin(color, MeowHighlight.YELLOW);
     }
 
     @Override
@@ -159,6 +252,24 @@ public enum MeowBuiltinFunction implements MeowFunction {
         return meow;
     }
 
-    @Override
-    public abstract MeowValue applyValues(MeowContext context, List<MeowValue> args);
+    private static MeowList toList(MeowValue value) {
+        if (value instanceof MeowList list) {
+            return list;
+        }
+        throw new IllegalArgumentException("Expected a list, but got " + value);
+    }
+
+    private static MeowMap toMap(MeowValue value) {
+        if (value instanceof MeowMap map) {
+            return map;
+        }
+        throw new IllegalArgumentException("Expected a map, but got " + value);
+    }
+
+    private static int toIndex(MeowValue value) {
+        if (value instanceof MeowIntegerValue(long index)) {
+            return MeowList.toIndex(index);
+        }
+        throw new IllegalArgumentException("Expected an index, but got " + value);
+    }
 }
@@ -18,11 +18,15 @@ package org.glavo.meow.value;
 
 import org.glavo.meow.Meow;
 import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowHighlight;
+import org.glavo.meow.MeowScope;
 import org.glavo.meow.MeowUtils;
 import org.glavo.meow.ast.MeowExpression;
 import org.glavo.meow.ast.MeowExpressionList;
 import org.glavo.meow.ast.MeowIdentifier;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.STHighlightColor;
+import org.glavo.meow.ast.MeowLocalIdentifier;
+import org.glavo.meow.node.MeowNode;
+import org.glavo.meow.node.MeowParallel;
 
 import java.util.List;
 
@@ -31,7 +35,13 @@ public enum MeowBuiltinMacro implements MeowMacro {
         @Override
         public MeowValue process(MeowContext context, List<MeowExpression> args) {
             MeowUtils.checkArgsCount(args, 2);
+            MeowParallel.checkLet(context);
             MeowExpression name = args.getFirst();
+            if (name instanceof MeowLocalIdentifier local) {
+                MeowValue value = args.get(1).eval(context);
+                local.assign(context, value);
+                return value;
+            }
             if (!(name instanceof MeowIdentifier(Meow meow))) {
                 throw new IllegalArgumentException("Expected identifier, but got " + name);
             }
@@ -62,7 +72,9 @@ public enum MeowBuiltinMacro implements MeowMacro {
                 throw new IllegalArgumentException("Expected parameter list, but got " + args.getFirst());
             }
 
-            return new MeowLambda(context, parameters, args.subList(1, args.size()));
+            MeowScope scope = MeowScope.of(parameters);
+            List<MeowExpression> body = args.subList(1, args.size());
+            return new MeowLambda(context, scope, body, MeowNode.compileBlock(scope, body));
         }
     },
     INTEGER("integer", 0x00000000) { // TODO
@@ -74,7 +86,22 @@ public enum MeowBuiltinMacro implements MeowMacro {
                 if (fontSize == null) {
                     throw new IllegalArgumentException("Font size not set");
                 }
-                return new MeowIntegerValue(fontSize.longValue());
+                return MeowIntegerValue.of(fontSize.longValue());
+            } else {
+                throw new IllegalArgumentException("Expected an identifier, but got " + args.getFirst());
+            }
+        }
+    },
+    FLOAT("float", 0x7F7F7F) {
+        @Override
+        public MeowValue process(MeowContext context, List<MeowExpression> args) {
+            MeowUtils.checkArgsCount(args, 1);
+            if (args.getFirst() instanceof MeowIdentifier(Meow meow)) {
+                Double fontSize = meow.getFontSize();
+                if (fontSize == null) {
+                    throw new IllegalArgumentException("Font size not set");
+                }
+                return new MeowFloatValue(fontSize);
             } else {
                 throw new IllegalArgumentException("Expected an identifier, but got " + args.getFirst());
             }
@@ -86,7 +113,7 @@ public enum MeowBuiltinMacro implements MeowMacro {
 
     MeowBuiltinMacro(String name, int color) {
         this.name = name;
-        this.meow = Meow.builtin(color, STHighlightColor.LIGHT_GRAY);
+        this.meow = Meow.builtin(color, MeowHighlight.LIGHT_GRAY);
     }
 
     @Override
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.Meow;
+
+import java.util.function.BiConsumer;
+
+// The families of builtins, for everything that has to know all of them
+public final class MeowBuiltins {
+
+    // In the order the symbol map lists them
+    public static void forEach(BiConsumer<Meow, MeowValue> action) {
+        for (MeowBuiltinMacro macro : MeowBuiltinMacro.values()) {
+            action.accept(macro.getMeow(), macro);
+        }
+        for (MeowBuiltinFunction function : MeowBuiltinFunction.values()) {
+            action.accept(function.getMeow(), function);
+        }
+        for (MeowArithmeticOperator operator : MeowArithmeticOperator.values()) {
+            action.accept(operator.getMeow(), operator);
+        }
+        for (MeowComparisonOperator operator : MeowComparisonOperator.values()) {
+            action.accept(operator.getMeow(), operator);
+        }
+    }
+
+    private MeowBuiltins() {
+    }
+}
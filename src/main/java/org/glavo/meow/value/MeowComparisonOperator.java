@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowHighlight;
+
+import java.util.List;
+
+import static org.glavo.meow.MeowUtils.checkArgsCount;
+
+// Comparisons give 1 or 0, so applying the result selects between two arguments
+public enum MeowComparisonOperator implements MeowOperator {
+    LESS("less", 0x92D050) {
+        @Override
+        public boolean test(int comparison) {
+            return comparison < 0;
+        }
+    },
+    GREATER("greater", 0xFF0000) {
+        @Override
+        public boolean test(int comparison) {
+            return comparison > 0;
+        }
+    },
+    EQUAL("equal", 0x002060) {
+        @Override
+        public boolean test(int comparison) {
+            return comparison == 0;
+        }
+
+        @Override
+        public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+            checkArgsCount(args, 2);
+            MeowValue left = args.get(0);
+            MeowValue right = args.get(1);
+            if (left instanceof MeowNumber l && right instanceof MeowNumber r) {
+                return compare(l, r);
+            } else if (left instanceof MeowText && right instanceof MeowText) {
+                return MeowIntegerValue.of(left.toDisplayString(context).equals(right.toDisplayString(context)) ? 1 : 0);
+            } else {
+                return MeowIntegerValue.of(left.equals(right) ? 1 : 0);
+            }
+        }
+    };
+
+    private final String name;
+    private final Meow meow;
+
+    MeowComparisonOperator(String name, int color) {
+        this.name = name;
+        this.meow = Meow.builtin(color, MeowHighlight.YELLOW);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Meow getMeow() {
+        return meow;
+    }
+
+    public abstract boolean test(int comparison);
+
+    @Override
+    public long applyLongs(long left, long right) {
+        return test(Long.compare(left, right)) ? 1 : 0;
+    }
+
+    @Override
+    public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+        checkArgsCount(args, 2);
+        return compare(MeowNumber.of(args.get(0)), MeowNumber.of(args.get(1)));
+    }
+
+    MeowIntegerValue compare(MeowNumber left, MeowNumber right) {
+        int comparison;
+        if (left instanceof MeowIntegerValue(long l) && right instanceof MeowIntegerValue(long r)) {
+            comparison = Long.compare(l, r);
+        } else if (left instanceof MeowFloatValue || right instanceof MeowFloatValue) {
+            comparison = Double.compare(left.toDouble(), right.toDouble());
+        } else {
+            comparison = left.toBigInteger().compareTo(right.toBigInteger());
+        }
+        return MeowIntegerValue.of(test(comparison) ? 1 : 0);
+    }
+}
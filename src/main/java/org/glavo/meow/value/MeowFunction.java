@@ -16,8 +16,8 @@
  */
 package org.glavo.meow.value;
 
-import org.glavo.meow.Meow;
 import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowLog;
 import org.glavo.meow.ast.MeowExpression;
 
 import java.util.List;
@@ -33,11 +33,11 @@ public non-sealed interface MeowFunction extends MeowValue {
     default MeowValue apply(MeowContext context, List<MeowExpression> args) {
         List<MeowValue> values = args.stream().map(arg -> arg.eval(context)).toList();
 
-        if (Meow.DEBUG) {
-            context.log("|   >>> {0}{2} in {1}",
-                    getName(),
-                    context,
-                    values.stream().map(it -> it.toDebugString(context)).toList());
+        if (MeowLog.ENABLED) {
+            MeowLog.EVAL.trace("apply function={} args={} context={}",
+                    this::getName,
+                    () -> values.stream().map(it -> it.toDebugString(context)).toList(),
+                    () -> context);
         }
         return applyValues(context, values);
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.node.MeowParallel;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+
+// The result of `spawn`: a function applied on its own virtual thread.
+// Applying the future, or `await`, blocks until the result is there.
+public final class MeowFuture implements MeowFunction {
+
+    private static final ThreadFactory FACTORY = Thread.ofVirtual().name("meow-spawn-", 0).factory();
+
+    public static MeowFuture spawn(MeowContext context, MeowFunction function, List<MeowValue> args) {
+        MeowFuture future = new MeowFuture();
+        FACTORY.newThread(() -> {
+            try {
+                future.result.complete(function.applyValues(context, args));
+            } catch (Throwable e) {
+                future.result.completeExceptionally(e);
+            }
+        }).start();
+        return future;
+    }
+
+    private final CompletableFuture<MeowValue> result = new CompletableFuture<>();
+
+    private MeowFuture() {
+    }
+
+    public MeowValue await() {
+        // Blocking would hold a worker of the pool that evaluates arguments concurrently
+        MeowParallel.checkEffect();
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Rethrow what the function threw, as if it had been called here
+            if (e.getCause() instanceof RuntimeException exception) {
+                throw exception;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    @Override
+    public String getName() {
+        return "future@" + Integer.toHexString(System.identityHashCode(this));
+    }
+
+    @Override
+    public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+        if (!args.isEmpty()) {
+            throw new IllegalArgumentException("Expected 0 arguments, but got " + args.size() + ": " + args);
+        }
+        return await();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
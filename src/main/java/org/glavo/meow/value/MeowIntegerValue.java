@@ -18,9 +18,28 @@ package org.glavo.meow.value;
 
 import org.glavo.meow.MeowContext;
 
+import java.math.BigInteger;
 import java.util.List;
 
-public record MeowIntegerValue(long value) implements MeowFunction {
+public record MeowIntegerValue(long value) implements MeowNumber {
+
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+
+    private static final MeowIntegerValue[] CACHE = new MeowIntegerValue[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new MeowIntegerValue(i + CACHE_LOW);
+        }
+    }
+
+    public static MeowIntegerValue of(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        return new MeowIntegerValue(value);
+    }
 
     @Override
     public String getName() {
@@ -32,6 +51,16 @@ public record MeowIntegerValue(long value) implements MeowFunction {
         return args.get((int) value);
     }
 
+    @Override
+    public BigInteger toBigInteger() {
+        return BigInteger.valueOf(value);
+    }
+
+    @Override
+    public double toDouble() {
+        return value;
+    }
+
     @Override
     public String toDisplayString(MeowContext context) {
         return Long.toString(value);
@@ -18,8 +18,10 @@ package org.glavo.meow.value;
 
 import org.glavo.meow.Meow;
 import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowScope;
 import org.glavo.meow.MeowSymbolMap;
 import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.node.MeowBlockNode;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,10 +30,19 @@ import static org.glavo.meow.MeowUtils.checkArgsCount;
 
 public record MeowLambda(
         MeowContext declarationContext,
-        List<Meow> parameters,
-        List<MeowExpression> body
+        MeowScope scope,
+        List<MeowExpression> body,
+        MeowBlockNode code
 ) implements MeowFunction {
 
+    public MeowLambda {
+        declarationContext.markCaptured();
+    }
+
+    public List<Meow> parameters() {
+        return scope.getParameters();
+    }
+
     @Override
     public String getName() {
         return "lambda@" + Integer.toHexString(System.identityHashCode(this));
@@ -39,25 +50,25 @@ public record MeowLambda(
 
     @Override
     public MeowValue applyValues(MeowContext ignored, List<MeowValue> lambdaArgs) {
-        checkArgsCount(lambdaArgs, parameters.size());
+        checkArgsCount(lambdaArgs, scope.getParameterCount());
 
-        MeowContext nestContext = new MeowContext(declarationContext);
-        for (int i = 0; i < parameters.size(); i++) {
-            nestContext.setValue(parameters.get(i), lambdaArgs.get(i));
+        MeowValue[] slots = new MeowValue[scope.size()];
+        for (int i = 0; i < lambdaArgs.size(); i++) {
+            slots[i] = lambdaArgs.get(i);
         }
+        return invoke(slots);
+    }
 
-        MeowValue result = MeowUnit.UNIT;
-        for (MeowExpression node : body) {
-            result = node.eval(nestContext);
-        }
-        return result;
+    // The arguments are already in the first slots, and the array is used as the frame directly
+    public MeowValue invoke(MeowValue[] slots) {
+        return code.call(new MeowContext(declarationContext, scope, slots));
     }
 
     @Override
     public String toDebugString(MeowContext context) {
         StringBuilder builder = new StringBuilder();
         builder.append(getName()).append("[context=").append(context.toString()).append(", parameters=[");
-        builder.append(parameters.stream().map(MeowSymbolMap.INSTANCE::get).collect(Collectors.joining(", ")));
+        builder.append(parameters().stream().map(MeowSymbolMap.INSTANCE::get).collect(Collectors.joining(", ")));
         builder.append("], body=");
         builder.append(MeowSymbolMap.INSTANCE.toString(body));
         builder.append("]");
@@ -19,16 +19,321 @@ package org.glavo.meow.value;
 import org.glavo.meow.MeowContext;
 
 import java.util.List;
+import java.util.StringJoiner;
 
-public record MeowList(List<MeowValue> values) implements MeowFunction {
+// An immutable list whose storage depends on its elements: integers are kept unboxed in a long[], text in a
+// MeowText[], and anything else in a MeowValue[]. A list is a window of its storage, so slicing shares it,
+// and appending right after the last element written to the storage fills the spare capacity in place.
+public final class MeowList implements MeowFunction {
+
+    public static final MeowList EMPTY = new MeowList(new ValueStorage(new MeowValue[0], 0), 0, 0);
+
+    public static MeowList of(List<MeowValue> values) {
+        if (values.isEmpty()) {
+            return EMPTY;
+        }
+
+        boolean longs = true;
+        boolean texts = true;
+        for (MeowValue value : values) {
+            longs &= value instanceof MeowIntegerValue;
+            texts &= value instanceof MeowText;
+        }
+
+        int size = values.size();
+        Storage storage;
+        if (longs) {
+            long[] array = new long[size];
+            for (int i = 0; i < size; i++) {
+                array[i] = ((MeowIntegerValue) values.get(i)).value();
+            }
+            storage = new LongStorage(array, size);
+        } else if (texts) {
+            storage = new TextStorage(values.toArray(new MeowText[0]), size);
+        } else {
+            storage = new ValueStorage(values.toArray(new MeowValue[0]), size);
+        }
+        return new MeowList(storage, 0, size);
+    }
+
+    private final Storage storage;
+    private final int offset;
+    private final int length;
+
+    private MeowList(Storage storage, int offset, int length) {
+        this.storage = storage;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public MeowValue get(int index) {
+        return storage.get(offset + checkIndex(index, length));
+    }
+
+    public MeowList append(MeowValue value) {
+        if (length == 0) {
+            Storage storage = Storage.of(value, 4);
+            storage.set(0, value);
+            return new MeowList(storage, 0, 1);
+        }
+
+        int end = offset + length;
+        if (storage.accepts(value) && storage.claim(end)) {
+            storage.set(end, value);
+            return new MeowList(storage, offset, length + 1);
+        }
+
+        int capacity = length + (length >> 1) + 1;
+        Storage copy = storage.accepts(value)
+                ? storage.copy(offset, length, capacity)
+                : ValueStorage.copyOf(storage, offset, length, capacity);
+        copy.set(length, value);
+        return new MeowList(copy, 0, length + 1);
+    }
+
+    public MeowList slice(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IllegalArgumentException("Invalid slice [" + start + ", " + end + ") of a list of length " + length);
+        }
+        return start == end ? EMPTY : new MeowList(storage, offset + start, end - start);
+    }
 
     @Override
     public String getName() {
         return "list@" + Integer.toHexString(System.identityHashCode(this));
     }
 
+    // Applying a list to an index gives the element
     @Override
     public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
-        return this; // TODO: ???
+        if (args.size() != 1 || !(args.getFirst() instanceof MeowIntegerValue(long index))) {
+            throw new IllegalArgumentException("Expected an index, but got " + args);
+        }
+        return get(toIndex(index));
+    }
+
+    @Override
+    public String toDisplayString(MeowContext context) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < length; i++) {
+            joiner.add(get(i).toDisplayString(context));
+        }
+        return joiner.toString();
+    }
+
+    @Override
+    public String toDebugString(MeowContext context) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < length; i++) {
+            joiner.add(get(i).toDebugString(context));
+        }
+        return joiner.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MeowList other) || other.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!get(i).equals(other.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + get(i).hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < length; i++) {
+            joiner.add(get(i).toString());
+        }
+        return joiner.toString();
+    }
+
+    static int toIndex(long index) {
+        if (index < 0 || index > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Index out of range: " + index);
+        }
+        return (int) index;
+    }
+
+    private static int checkIndex(int index, int length) {
+        if (index < 0 || index >= length) {
+            throw new IllegalArgumentException("Index " + index + " out of range for a list of length " + length);
+        }
+        return index;
+    }
+
+    private static abstract sealed class Storage permits LongStorage, TextStorage, ValueStorage {
+        // A storage for lists starting with the value, with its first slot claimed
+        static Storage of(MeowValue value, int capacity) {
+            if (value instanceof MeowIntegerValue) {
+                return new LongStorage(new long[capacity], 1);
+            } else if (value instanceof MeowText) {
+                return new TextStorage(new MeowText[capacity], 1);
+            } else {
+                return new ValueStorage(new MeowValue[capacity], 1);
+            }
+        }
+
+        // The number of elements written, lists ending there may append in place
+        private int used;
+
+        Storage(int used) {
+            this.used = used;
+        }
+
+        synchronized boolean claim(int index) {
+            if (used == index && index < capacity()) {
+                used++;
+                return true;
+            }
+            return false;
+        }
+
+        abstract int capacity();
+
+        abstract boolean accepts(MeowValue value);
+
+        abstract MeowValue get(int index);
+
+        abstract void set(int index, MeowValue value);
+
+        // A storage of the same kind holding the elements [from, from + length), with the slot after them claimed
+        abstract Storage copy(int from, int length, int capacity);
+    }
+
+    private static final class LongStorage extends Storage {
+        private final long[] array;
+
+        LongStorage(long[] array, int used) {
+            super(used);
+            this.array = array;
+        }
+
+        @Override
+        int capacity() {
+            return array.length;
+        }
+
+        @Override
+        boolean accepts(MeowValue value) {
+            return value instanceof MeowIntegerValue;
+        }
+
+        @Override
+        MeowValue get(int index) {
+            return MeowIntegerValue.of(array[index]);
+        }
+
+        @Override
+        void set(int index, MeowValue value) {
+            array[index] = ((MeowIntegerValue) value).value();
+        }
+
+        @Override
+        Storage copy(int from, int length, int capacity) {
+            long[] result = new long[capacity];
+            System.arraycopy(array, from, result, 0, length);
+            return new LongStorage(result, length + 1);
+        }
+    }
+
+    private static final class TextStorage extends Storage {
+        private final MeowText[] array;
+
+        TextStorage(MeowText[] array, int used) {
+            super(used);
+            this.array = array;
+        }
+
+        @Override
+        int capacity() {
+            return array.length;
+        }
+
+        @Override
+        boolean accepts(MeowValue value) {
+            return value instanceof MeowText;
+        }
+
+        @Override
+        MeowValue get(int index) {
+            return array[index];
+        }
+
+        @Override
+        void set(int index, MeowValue value) {
+            array[index] = (MeowText) value;
+        }
+
+        @Override
+        Storage copy(int from, int length, int capacity) {
+            MeowText[] result = new MeowText[capacity];
+            System.arraycopy(array, from, result, 0, length);
+            return new TextStorage(result, length + 1);
+        }
+    }
+
+    private static final class ValueStorage extends Storage {
+        static ValueStorage copyOf(Storage storage, int from, int length, int capacity) {
+            MeowValue[] result = new MeowValue[capacity];
+            for (int i = 0; i < length; i++) {
+                result[i] = storage.get(from + i);
+            }
+            return new ValueStorage(result, length + 1);
+        }
+
+        private final MeowValue[] array;
+
+        ValueStorage(MeowValue[] array, int used) {
+            super(used);
+            this.array = array;
+        }
+
+        @Override
+        int capacity() {
+            return array.length;
+        }
+
+        @Override
+        boolean accepts(MeowValue value) {
+            return true;
+        }
+
+        @Override
+        MeowValue get(int index) {
+            return array[index];
+        }
+
+        @Override
+        void set(int index, MeowValue value) {
+            array[index] = value;
+        }
+
+        @Override
+        Storage copy(int from, int length, int capacity) {
+            MeowValue[] result = new MeowValue[capacity];
+            System.arraycopy(array, from, result, 0, length);
+            return new ValueStorage(result, length + 1);
+        }
     }
 }
@@ -16,8 +16,8 @@
  */
 package org.glavo.meow.value;
 
-import org.glavo.meow.Meow;
 import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowLog;
 import org.glavo.meow.MeowSymbolMap;
 import org.glavo.meow.ast.MeowExpression;
 
@@ -32,12 +32,11 @@ public non-sealed interface MeowMacro extends MeowValue {
 
     @Override
     default MeowValue apply(MeowContext context, List<MeowExpression> args) {
-        String macro = getName();
-        if (Meow.DEBUG) {
-            context.log("|   >>> {0}{2} in {1}",
-                    macro,
-                    context,
-                    MeowSymbolMap.INSTANCE.toString(args));
+        if (MeowLog.ENABLED) {
+            MeowLog.EVAL.trace("apply macro={} args={} context={}",
+                    this::getName,
+                    () -> MeowSymbolMap.INSTANCE.toString(args),
+                    () -> context);
         }
         return process(context, args);
     }
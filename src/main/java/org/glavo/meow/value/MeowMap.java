@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowSymbolMap;
+import org.glavo.meow.MeowUtils;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+// A persistent map, stored as a hash array mapped trie. Every level consumes 5 bits of the hash, so lookups
+// and updates touch O(log32 n) nodes, and updates copy only the path to the changed entry.
+//
+// Keys are text, compared by content without styles, integers, or Meow symbols.
+public final class MeowMap implements MeowFunction {
+
+    public static final MeowMap EMPTY = new MeowMap(null, 0);
+
+    public static Object keyOf(MeowValue value) {
+        if (value instanceof MeowText text) {
+            return text.toDisplayString(null);
+        } else if (value instanceof MeowIntegerValue || value instanceof MeowBigIntegerValue) {
+            return value;
+        } else {
+            throw new IllegalArgumentException("Expected a text or integer key, but got " + value);
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private MeowMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns null if there is no value for the key
+    public MeowValue get(Object key) {
+        return root == null ? null : root.find(0, hash(key), key);
+    }
+
+    public MeowMap assoc(Object key, MeowValue value) {
+        Box added = new Box();
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root).assoc(null, 0, hash(key), key, value, added);
+        return newRoot == root ? this : new MeowMap(newRoot, added.value ? size + 1 : size);
+    }
+
+    public MeowMap dissoc(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Box removed = new Box();
+        Node newRoot = root.without(null, 0, hash(key), key, removed);
+        return newRoot == root ? this : new MeowMap(newRoot, size - 1);
+    }
+
+    public void forEach(BiConsumer<Object, MeowValue> action) {
+        if (root != null) {
+            root.forEach(action);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "map@" + Integer.toHexString(System.identityHashCode(this));
+    }
+
+    // Applying a map to a key gives its value
+    @Override
+    public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+        MeowUtils.checkArgsCount(args, 1);
+        MeowValue value = get(keyOf(args.getFirst()));
+        return value != null ? value : MeowUnit.UNIT;
+    }
+
+    @Override
+    public String toDisplayString(MeowContext context) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(keyToString(key, false) + ": " + value.toDisplayString(context)));
+        return joiner.toString();
+    }
+
+    @Override
+    public String toDebugString(MeowContext context) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(keyToString(key, true) + ": " + value.toDebugString(context)));
+        return joiner.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MeowMap other) || other.size != size) {
+            return false;
+        }
+        boolean[] result = {true};
+        forEach((key, value) -> {
+            if (result[0] && !value.equals(other.get(key))) {
+                result[0] = false;
+            }
+        });
+        return result[0];
+    }
+
+    @Override
+    public int hashCode() {
+        int[] result = {0};
+        forEach((key, value) -> result[0] += key.hashCode() ^ value.hashCode());
+        return result[0];
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(keyToString(key, true) + ": " + value));
+        return joiner.toString();
+    }
+
+    private static String keyToString(Object key, boolean debug) {
+        return switch (key) {
+            case String text -> debug ? MeowUtils.toDebugString(text) : text;
+            case Meow meow -> MeowSymbolMap.INSTANCE.get(meow);
+            case MeowValue value -> value.toDisplayString(null);
+            default -> key.toString();
+        };
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    // Builds a map by updating the trie in place. Nodes created by one builder are owned by its edit token
+    // and are mutated directly, anything shared with other maps is copied first.
+    public static final class Builder {
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        public Builder() {
+        }
+
+        public Builder(MeowMap map) {
+            this.root = map.root;
+            this.size = map.size;
+        }
+
+        public Builder put(Object key, MeowValue value) {
+            checkEditable();
+            Box added = new Box();
+            root = (root == null ? BitmapNode.EMPTY : root).assoc(edit, 0, hash(key), key, value, added);
+            if (added.value) {
+                size++;
+            }
+            return this;
+        }
+
+        public Builder remove(Object key) {
+            checkEditable();
+            if (root != null) {
+                Box removed = new Box();
+                root = root.without(edit, 0, hash(key), key, removed);
+                if (removed.value) {
+                    size--;
+                }
+            }
+            return this;
+        }
+
+        public MeowMap build() {
+            checkEditable();
+            // Nodes owned by the old token are never mutated again
+            edit = null;
+            return size == 0 ? EMPTY : new MeowMap(root, size);
+        }
+
+        private void checkEditable() {
+            if (edit == null) {
+                throw new IllegalStateException("The map has already been built");
+            }
+        }
+    }
+
+    // region Trie
+
+    private static final class Box {
+        boolean value;
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 31);
+    }
+
+    private static abstract sealed class Node permits BitmapNode, CollisionNode {
+        abstract MeowValue find(int shift, int hash, Object key);
+
+        // Sets added when the key was not present
+        abstract Node assoc(Object edit, int shift, int hash, Object key, MeowValue value, Box added);
+
+        // Returns null when the node becomes empty, and sets removed when the key was present
+        abstract Node without(Object edit, int shift, int hash, Object key, Box removed);
+
+        abstract void forEach(BiConsumer<Object, MeowValue> action);
+    }
+
+    // Entries are pairs in the array, a null key means the value is a child node for the next 5 bits
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        private final Object edit;
+        private int bitmap;
+        private Object[] array;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        MeowValue find(int shift, int hash, Object key) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = index(bit);
+            Object k = array[2 * index];
+            Object v = array[2 * index + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + 5, hash, key);
+            }
+            return key.equals(k) ? (MeowValue) v : null;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, MeowValue value, Box added) {
+            int bit = bitpos(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * index];
+                Object v = array[2 * index + 1];
+                if (k == null) {
+                    Node child = ((Node) v).assoc(edit, shift + 5, hash, key, value, added);
+                    return child == v ? this : with(edit, 2 * index + 1, child);
+                }
+                if (key.equals(k)) {
+                    return v == value ? this : with(edit, 2 * index + 1, value);
+                }
+                added.value = true;
+                Node child = createNode(edit, shift + 5, k, (MeowValue) v, hash, key, value);
+                BitmapNode result = with(edit, 2 * index, null);
+                result.array[2 * index + 1] = child;
+                return result;
+            }
+
+            added.value = true;
+            int count = Integer.bitCount(bitmap);
+            if (edit != null && edit == this.edit && 2 * count < array.length) {
+                System.arraycopy(array, 2 * index, array, 2 * index + 2, 2 * (count - index));
+                array[2 * index] = key;
+                array[2 * index + 1] = value;
+                bitmap |= bit;
+                return this;
+            }
+
+            // Owned nodes get spare room, so that a builder does not copy the array on every insertion
+            Object[] newArray = new Object[2 * (edit != null ? count + 4 : count + 1)];
+            System.arraycopy(array, 0, newArray, 0, 2 * index);
+            newArray[2 * index] = key;
+            newArray[2 * index + 1] = value;
+            System.arraycopy(array, 2 * index, newArray, 2 * index + 2, 2 * (count - index));
+            return new BitmapNode(edit, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box removed) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object k = array[2 * index];
+            Object v = array[2 * index + 1];
+            if (k == null) {
+                Node child = ((Node) v).without(edit, shift + 5, hash, key, removed);
+                if (child == v) {
+                    return this;
+                } else if (child != null) {
+                    return with(edit, 2 * index + 1, child);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            } else {
+                removed.value = true;
+            }
+
+            if (bitmap == bit) {
+                return null;
+            }
+
+            int count = Integer.bitCount(bitmap);
+            if (edit != null && edit == this.edit) {
+                System.arraycopy(array, 2 * index + 2, array, 2 * index, 2 * (count - index - 1));
+                array[2 * count - 2] = null;
+                array[2 * count - 1] = null;
+                bitmap ^= bit;
+                return this;
+            }
+
+            Object[] newArray = new Object[2 * (count - 1)];
+            System.arraycopy(array, 0, newArray, 0, 2 * index);
+            System.arraycopy(array, 2 * index + 2, newArray, 2 * index, 2 * (count - index - 1));
+            return new BitmapNode(edit, bitmap ^ bit, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, MeowValue> action) {
+            int count = Integer.bitCount(bitmap);
+            for (int i = 0; i < count; i++) {
+                Object k = array[2 * i];
+                Object v = array[2 * i + 1];
+                if (k == null) {
+                    ((Node) v).forEach(action);
+                } else {
+                    action.accept(k, (MeowValue) v);
+                }
+            }
+        }
+
+        private BitmapNode with(Object edit, int index, Object value) {
+            if (edit != null && edit == this.edit) {
+                array[index] = value;
+                return this;
+            }
+            Object[] newArray = array.clone();
+            newArray[index] = value;
+            return new BitmapNode(edit, bitmap, newArray);
+        }
+
+        private static Node createNode(Object edit, int shift,
+                                       Object key1, MeowValue value1, int hash2, Object key2, MeowValue value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+            }
+            Box added = new Box();
+            return EMPTY.assoc(edit, shift, hash1, key1, value1, added)
+                    .assoc(edit, shift, hash2, key2, value2, added);
+        }
+    }
+
+    // Keys with the same full hash, as plain pairs
+    private static final class CollisionNode extends Node {
+        private final Object edit;
+        private final int hash;
+        private Object[] array;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            this.edit = edit;
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        MeowValue find(int shift, int hash, Object key) {
+            int index = indexOf(key);
+            return index >= 0 ? (MeowValue) array[index + 1] : null;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, MeowValue value, Box added) {
+            if (hash != this.hash) {
+                return new BitmapNode(edit, bitpos(this.hash, shift), new Object[]{null, this})
+                        .assoc(edit, shift, hash, key, value, added);
+            }
+
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+                if (edit != null && edit == this.edit) {
+                    array[index + 1] = value;
+                    return this;
+                }
+                Object[] newArray = array.clone();
+                newArray[index + 1] = value;
+                return new CollisionNode(edit, hash, newArray);
+            }
+
+            added.value = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            if (edit != null && edit == this.edit) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box removed) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            removed.value = true;
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, array.length - index - 2);
+            if (edit != null && edit == this.edit) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, MeowValue> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], (MeowValue) array[i + 1]);
+            }
+        }
+    }
+
+    // endregion
+}
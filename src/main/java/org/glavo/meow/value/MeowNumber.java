@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.MeowContext;
+
+import java.math.BigInteger;
+import java.util.List;
+
+// The numeric tower: longs, promoted to big integers when an operation overflows, and doubles.
+public sealed interface MeowNumber extends MeowFunction permits MeowIntegerValue, MeowBigIntegerValue, MeowFloatValue {
+
+    static MeowNumber of(MeowValue value) {
+        if (value instanceof MeowNumber number) {
+            return number;
+        }
+        throw new IllegalArgumentException("Expected a number, but got " + value);
+    }
+
+    // Only integers select one of their arguments
+    @Override
+    default MeowValue applyValues(MeowContext context, List<MeowValue> args) {
+        throw new IllegalArgumentException("Cannot apply " + toDisplayString(context) + " as a function");
+    }
+
+    BigInteger toBigInteger();
+
+    double toDouble();
+}
@@ -16,15 +16,98 @@
  */
 package org.glavo.meow.value;
 
-import org.apache.poi.xwpf.usermodel.XWPFRun;
 import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowRun;
+import org.glavo.meow.MeowStyle;
 import org.glavo.meow.MeowUtils;
-import org.glavo.meow.ast.MeowExpression;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public record MeowText(List<XWPFRun> content) implements MeowFunction {
+// Styled text, stored as a balanced rope so that appending to a long text does not copy it.
+//
+// The leaves keep the characters of their spans in one string, and each span only records where it ends
+// and the index of its style in a table that holds every style once. Adjacent runs with the same style
+// are merged into one span when a leaf is built. Concatenation joins the ropes as AVL trees, small leaves
+// at the seam are merged, and the whole text is flattened into a single leaf the first time it is printed.
+public final class MeowText implements MeowFunction {
+
+    // Leaves up to this length are copied into one instead of growing the tree
+    private static final int MERGE_THRESHOLD = 256;
+
+    @FunctionalInterface
+    public interface SpanConsumer {
+        void accept(String text, MeowStyle style, List<byte[]> pictures);
+    }
+
+    public static MeowText of(String text) {
+        return new Builder().append(text, MeowStyle.PLAIN, List.of()).build();
+    }
+
+    public static MeowText of(List<MeowRun> runs) {
+        Builder builder = new Builder();
+        for (MeowRun run : runs) {
+            builder.append(run);
+        }
+        return builder.build();
+    }
+
+    private final Rope rope;
+    private Leaf flat; // Racy, but every thread computes an equal leaf
+
+    private MeowText(Rope rope) {
+        this.rope = rope;
+        if (rope instanceof Leaf leaf) {
+            this.flat = leaf;
+        }
+    }
+
+    public int length() {
+        return rope.length();
+    }
+
+    int depth() {
+        return rope.depth();
+    }
+
+    public MeowText concat(MeowText other) {
+        if (other.length() == 0 && !other.rope.hasPictures()) {
+            return this;
+        }
+        if (this.length() == 0 && !this.rope.hasPictures()) {
+            return other;
+        }
+        return new MeowText(join(this.rope, other.rope));
+    }
+
+    // Pictures go with the end of the text of their span.
+    // The slice shares the subtrees inside the range, only the leaves at its edges are copied.
+    public MeowText slice(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IllegalArgumentException("Invalid slice [" + start + ", " + end + ") of a text of length " + length());
+        }
+        if (start == 0 && end == length()) {
+            return this;
+        }
+        return new MeowText(slice(rope, start, end));
+    }
+
+    // Pictures of a span come after its text
+    public void forEachSpan(SpanConsumer action) {
+        flatten().forEachSpan(action);
+    }
+
+    private Leaf flatten() {
+        Leaf flat = this.flat;
+        if (flat == null) {
+            Builder builder = new Builder();
+            appendTo(rope, builder);
+            this.flat = flat = builder.buildLeaf();
+        }
+        return flat;
+    }
 
     @Override
     public String getName() {
@@ -33,28 +116,285 @@ public record MeowText(List<XWPFRun> content) implements MeowFunction {
 
     @Override
     public MeowValue applyValues(MeowContext context, List<MeowValue> args) {
-        List<XWPFRun> results = new ArrayList<>(this.content);
+        MeowText result = this;
         for (MeowValue arg : args) {
-            if (arg instanceof MeowText(List<XWPFRun> argContent)) {
-                results.addAll(argContent);
-            } else {
-                results.add(MeowUtils.toXWPFRun(arg.toDisplayString(context)));
-            }
+            result = result.concat(arg instanceof MeowText text ? text : of(arg.toDisplayString(context)));
         }
-        return new MeowText(results);
+        return result;
     }
 
     @Override
     public String toDebugString(MeowContext context) {
-        return MeowUtils.toDebugString(content);
+        return MeowUtils.toDebugString(flatten().chars);
     }
 
     @Override
     public String toDisplayString(MeowContext context) {
-        StringBuilder builder = new StringBuilder();
-        for (XWPFRun run : content) {
-            builder.append(run.text());
+        return flatten().chars;
+    }
+
+    // region Rope
+
+    private sealed interface Rope permits Leaf, Concat {
+        int length();
+
+        int depth();
+
+        boolean hasPictures();
+    }
+
+    private record Concat(Rope left, Rope right, int length, int depth, boolean hasPictures) implements Rope {
+        static Concat of(Rope left, Rope right) {
+            return new Concat(left, right,
+                    left.length() + right.length(),
+                    Math.max(left.depth(), right.depth()) + 1,
+                    left.hasPictures() || right.hasPictures());
+        }
+    }
+
+    private static final class Leaf implements Rope {
+        private final String chars;
+        private final MeowStyle[] styles;
+        private final int[] spanEnds;
+        private final int[] spanStyles;
+        private final List<byte[]>[] spanPictures; // null if no span has pictures
+
+        Leaf(String chars, MeowStyle[] styles, int[] spanEnds, int[] spanStyles, List<byte[]>[] spanPictures) {
+            this.chars = chars;
+            this.styles = styles;
+            this.spanEnds = spanEnds;
+            this.spanStyles = spanStyles;
+            this.spanPictures = spanPictures;
+        }
+
+        @Override
+        public int length() {
+            return chars.length();
+        }
+
+        @Override
+        public int depth() {
+            return 0;
+        }
+
+        @Override
+        public boolean hasPictures() {
+            return spanPictures != null;
+        }
+
+        List<byte[]> picturesOf(int span) {
+            return spanPictures != null && spanPictures[span] != null ? spanPictures[span] : List.of();
+        }
+
+        void forEachSpan(SpanConsumer action) {
+            int start = 0;
+            for (int i = 0; i < spanEnds.length; i++) {
+                int end = spanEnds[i];
+                action.accept(chars.substring(start, end), styles[spanStyles[i]], picturesOf(i));
+                start = end;
+            }
+        }
+
+        void slice(int from, int to, Builder builder) {
+            int start = 0;
+            for (int i = 0; i < spanEnds.length && start <= to; i++) {
+                int end = spanEnds[i];
+                boolean keepPictures = from < end && end <= to || end == 0 && from == 0;
+                int sliceStart = Math.max(start, from);
+                int sliceEnd = Math.min(end, to);
+                if (sliceStart < sliceEnd || keepPictures) {
+                    builder.append(sliceStart < sliceEnd ? chars.substring(sliceStart, sliceEnd) : "",
+                            styles[spanStyles[i]],
+                            keepPictures ? picturesOf(i) : List.of());
+                }
+                start = end;
+            }
+        }
+    }
+
+    private static void appendTo(Rope rope, Builder builder) {
+        switch (rope) {
+            case Leaf leaf -> leaf.forEachSpan(builder::append);
+            case Concat concat -> {
+                appendTo(concat.left(), builder);
+                appendTo(concat.right(), builder);
+            }
+        }
+    }
+
+    // The pieces are balanced and joined in O(log n) each, so the result is balanced as well
+    private static Rope slice(Rope rope, int from, int to) {
+        if (from == 0 && to == rope.length()) {
+            return rope;
+        }
+        switch (rope) {
+            case Leaf leaf -> {
+                Builder builder = new Builder();
+                leaf.slice(from, to, builder);
+                return builder.buildLeaf();
+            }
+            case Concat concat -> {
+                int split = concat.left().length();
+                Rope left = from < split || from == 0 ? slice(concat.left(), from, Math.min(to, split)) : null;
+                Rope right = to > split ? slice(concat.right(), Math.max(from - split, 0), to - split) : null;
+                if (left == null) {
+                    return right != null ? right : new Builder().buildLeaf();
+                }
+                return right != null ? join(left, right) : left;
+            }
+        }
+    }
+
+    private static boolean isSmall(Rope rope) {
+        return rope instanceof Leaf && rope.length() <= MERGE_THRESHOLD;
+    }
+
+    private static Leaf merge(Rope left, Rope right) {
+        Builder builder = new Builder();
+        ((Leaf) left).forEachSpan(builder::append);
+        ((Leaf) right).forEachSpan(builder::append);
+        return builder.buildLeaf();
+    }
+
+    // Concatenates two balanced ropes into a balanced rope, in O(log n)
+    private static Rope join(Rope left, Rope right) {
+        if (isSmall(left) && isSmall(right)) {
+            return merge(left, right);
+        }
+        // Appending a small piece, the usual way to build a text, extends the last leaf,
+        // also when joinRight reaches it deeper in the tree
+        if (isSmall(right) && left instanceof Concat concat && isSmall(concat.right())) {
+            return Concat.of(concat.left(), merge(concat.right(), right));
+        }
+
+        if (left.depth() > right.depth() + 1) {
+            return joinRight((Concat) left, right);
+        } else if (right.depth() > left.depth() + 1) {
+            return joinLeft(left, (Concat) right);
+        } else {
+            return Concat.of(left, right);
+        }
+    }
+
+    private static Rope joinRight(Concat left, Rope right) {
+        Rope inner = left.right().depth() <= right.depth() + 1
+                ? join(left.right(), right)
+                : joinRight((Concat) left.right(), right);
+        Concat result = Concat.of(left.left(), inner);
+        if (inner.depth() <= left.left().depth() + 1) {
+            return result;
+        }
+        // inner is two levels deeper than its sibling
+        Concat concat = (Concat) inner;
+        if (concat.left().depth() > concat.right().depth()) {
+            result = Concat.of(left.left(), rotateRight(concat));
+        }
+        return rotateLeft(result);
+    }
+
+    private static Rope joinLeft(Rope left, Concat right) {
+        Rope inner = right.left().depth() <= left.depth() + 1
+                ? join(left, right.left())
+                : joinLeft(left, (Concat) right.left());
+        Concat result = Concat.of(inner, right.right());
+        if (inner.depth() <= right.right().depth() + 1) {
+            return result;
+        }
+        Concat concat = (Concat) inner;
+        if (concat.right().depth() > concat.left().depth()) {
+            result = Concat.of(rotateLeft(concat), right.right());
+        }
+        return rotateRight(result);
+    }
+
+    // (a (b c)) -> ((a b) c)
+    private static Concat rotateLeft(Concat concat) {
+        Concat right = (Concat) concat.right();
+        return Concat.of(Concat.of(concat.left(), right.left()), right.right());
+    }
+
+    // ((a b) c) -> (a (b c))
+    private static Concat rotateRight(Concat concat) {
+        Concat left = (Concat) concat.left();
+        return Concat.of(left.left(), Concat.of(left.right(), concat.right()));
+    }
+
+    // endregion
+
+    public static final class Builder {
+        private final StringBuilder chars = new StringBuilder();
+        private final Map<MeowStyle, Integer> styleIndexes = new HashMap<>();
+        private MeowStyle[] styles = new MeowStyle[4];
+        private int[] spanEnds = new int[8];
+        private int[] spanStyles = new int[8];
+        private List<byte[]>[] spanPictures;
+        private int spanCount;
+
+        public Builder append(MeowRun run) {
+            return append(run.text(), MeowStyle.of(run), run.pictures());
+        }
+
+        public Builder append(MeowText text) {
+            appendTo(text.rope, this);
+            return this;
+        }
+
+        public Builder append(String text, MeowStyle style, List<byte[]> pictures) {
+            if (text.isEmpty() && pictures.isEmpty()) {
+                return this;
+            }
+
+            int styleIndex = styleIndexes.computeIfAbsent(style, it -> {
+                int index = styleIndexes.size();
+                if (index == styles.length) {
+                    styles = Arrays.copyOf(styles, index * 2);
+                }
+                styles[index] = it;
+                return index;
+            });
+
+            chars.append(text);
+
+            // Only merge into a span without pictures, they must stay behind the text of their own run
+            int last = spanCount - 1;
+            if (last >= 0 && spanStyles[last] == styleIndex && (spanPictures == null || spanPictures[last] == null)) {
+                spanEnds[last] = chars.length();
+            } else {
+                if (spanCount == spanEnds.length) {
+                    spanEnds = Arrays.copyOf(spanEnds, spanCount * 2);
+                    spanStyles = Arrays.copyOf(spanStyles, spanCount * 2);
+                    if (spanPictures != null) {
+                        spanPictures = Arrays.copyOf(spanPictures, spanCount * 2);
+                    }
+                }
+                last = spanCount++;
+                spanEnds[last] = chars.length();
+                spanStyles[last] = styleIndex;
+            }
+
+            if (!pictures.isEmpty()) {
+                if (spanPictures == null) {
+                    @SuppressWarnings("unchecked")
+                    List<byte[]>[] array = new List[spanEnds.length];
+                    spanPictures = array;
+                }
+                spanPictures[last] = List.copyOf(pictures);
+            }
+            return this;
+        }
+
+        private Leaf buildLeaf() {
+            return new Leaf(
+                    chars.toString(),
+                    Arrays.copyOf(styles, styleIndexes.size()),
+                    Arrays.copyOf(spanEnds, spanCount),
+                    Arrays.copyOf(spanStyles, spanCount),
+                    spanPictures != null ? Arrays.copyOf(spanPictures, spanCount) : null
+            );
+        }
+
+        public MeowText build() {
+            return new MeowText(buildLeaf());
         }
-        return builder.toString();
     }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.ast.MeowIdentifier;
+import org.glavo.meow.ast.MeowRichText;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class MeowCacheTest {
+    private static final Path DOCUMENT = Path.of("demo/HelloWorld.docx");
+
+    @TempDir
+    Path directory;
+
+    // Pictures are arrays, so runs are compared with their pictures in hex
+    private static Object normalize(MeowExpression expression) {
+        return switch (expression) {
+            case MeowExpressionList(List<MeowExpression> nodes) -> nodes.stream().map(MeowCacheTest::normalize).toList();
+            case MeowRichText(List<MeowRun> content) -> content.stream().map(MeowCacheTest::normalize).toList();
+            default -> expression;
+        };
+    }
+
+    private static Object normalize(MeowRun run) {
+        return List.of(
+                new MeowRun(run.text(), run.italic(), run.bold(), run.underline(), run.color(),
+                        run.highlightColor(), run.font(), run.fontSize(), List.of()),
+                run.pictures().stream().map(HexFormat.of()::formatHex).toList());
+    }
+
+    private static List<Object> normalize(List<MeowExpression> program) {
+        return program.stream().map(MeowCacheTest::normalize).toList();
+    }
+
+    private static List<MeowExpression> parse(Path file) throws IOException {
+        var program = new ArrayList<MeowExpression>();
+        MeowStAXReader.read(file, runs -> program.add(MeowParser.parse(runs, true)));
+        return program;
+    }
+
+    private static byte[] write(List<MeowExpression> program) throws IOException {
+        var output = new ByteArrayOutputStream();
+        MeowCache.write(output, program);
+        return output.toByteArray();
+    }
+
+    private static List<MeowExpression> read(byte[] data) throws IOException {
+        return MeowCache.read(new ByteArrayInputStream(data));
+    }
+
+    private static List<MeowExpression> program(String text) {
+        MeowRun run = new MeowRun(text, true, false, MeowUnderline.SINGLE, 0xFF0000, MeowHighlight.NONE,
+                "Consolas", 10.5, List.of(new byte[]{1, 2, 3}));
+        return List.of(
+                new MeowExpressionList(List.of(new MeowIdentifier(Meow.of("", false, MeowUnderline.NONE, 1,
+                        MeowHighlight.NONE, false, null, 12.0)), new MeowRichText(List.of(run, MeowRun.of("meow"))))),
+                new MeowExpressionList(List.of()));
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        List<MeowExpression> program = parse(DOCUMENT);
+        byte[] data = write(program);
+        List<MeowExpression> result = read(data);
+
+        assertEquals(normalize(program), normalize(result));
+        assertArrayEquals(data, write(result));
+
+        List<MeowExpression> small = program("meow");
+        assertEquals(normalize(small), normalize(read(write(small))));
+    }
+
+    @Test
+    void rejectOtherFormats() throws IOException {
+        byte[] data = write(program("meow"));
+        data[7]++; // The version
+        assertThrows(IOException.class, () -> read(data));
+        assertThrows(IOException.class, () -> read("PK\3\4 not a program".getBytes()));
+    }
+
+    private static byte[] entry(int... bytes) throws IOException {
+        var output = new ByteArrayOutputStream();
+        output.write(write(List.of()), 0, 8); // The header
+        for (int b : bytes) {
+            output.write(b);
+        }
+        return output.toByteArray();
+    }
+
+    @Test
+    void rejectCorruptedEntries() throws IOException {
+        byte[] data = write(program("meow"));
+        for (int length = 8; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IOException.class, () -> read(truncated));
+        }
+
+        // Lengths larger than the rest of the entry, or negative
+        assertThrows(IOException.class, () -> read(entry(0xFF, 0xFF, 0xFF, 0xFF, 0x07)));
+        assertThrows(IOException.class, () -> read(entry(0xFF, 0xFF, 0xFF, 0xFF, 0x0F)));
+        assertThrows(IOException.class, () -> read(entry(1, 2, 0x80, 0x80, 0x80, 0x80, 0x08)));
+        assertThrows(IOException.class, () -> read(entry(1, 1, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F)));
+
+        // A single paragraph of lists nested far too deeply
+        int[] deep = new int[2 + 2 * 100000];
+        deep[0] = 1;
+        for (int i = 1; i < deep.length - 1; i += 2) {
+            deep[i] = 0;
+            deep[i + 1] = 1;
+        }
+        byte[] nested = entry(deep);
+        assertThrows(IOException.class, () -> read(nested));
+
+        MeowCache cache = new MeowCache(directory);
+        Files.write(directory.resolve("nested.meowc"), nested);
+        assertNull(cache.load("nested"));
+    }
+
+    @Test
+    void key() throws IOException {
+        Path copy = Files.copy(DOCUMENT, directory.resolve("copy.docx"));
+        assertEquals(MeowCache.key(DOCUMENT, "stax"), MeowCache.key(copy, "stax"));
+        assertNotEquals(MeowCache.key(DOCUMENT, "stax"), MeowCache.key(DOCUMENT, "poi"));
+
+        Files.write(copy, new byte[]{0}, StandardOpenOption.APPEND);
+        assertNotEquals(MeowCache.key(DOCUMENT, "stax"), MeowCache.key(copy, "stax"));
+    }
+
+    @Test
+    void storeAndLoad() throws IOException {
+        MeowCache cache = new MeowCache(directory.resolve("cache"));
+        List<MeowExpression> program = parse(DOCUMENT);
+        String key = MeowCache.key(DOCUMENT, "stax");
+
+        assertNull(cache.load(key));
+        cache.store(key, program);
+        assertEquals(normalize(program), normalize(cache.load(key)));
+
+        // Broken entries are treated as missing
+        Files.write(directory.resolve("cache").resolve(key + ".meowc"), new byte[]{1, 2, 3});
+        assertNull(cache.load(key));
+
+        assertNull(cache.loadData("image"));
+        cache.storeData("image", new byte[]{4, 5, 6});
+        assertArrayEquals(new byte[]{4, 5, 6}, cache.loadData("image"));
+    }
+
+    @Test
+    void evict() throws IOException {
+        List<MeowExpression> program = program("meow");
+        int size = write(program).length;
+        MeowCache cache = new MeowCache(directory, 2L * size + size / 2);
+        Instant now = Instant.now();
+
+        cache.store("a", program);
+        Files.setLastModifiedTime(directory.resolve("a.meowc"), FileTime.from(now.minus(2, ChronoUnit.HOURS)));
+        cache.store("b", program);
+        Files.setLastModifiedTime(directory.resolve("b.meowc"), FileTime.from(now.minus(1, ChronoUnit.HOURS)));
+
+        // Loading an entry makes it the most recently used one
+        assertNotNull(cache.load("a"));
+        cache.store("c", program);
+
+        assertNotNull(cache.load("a"));
+        assertNull(cache.load("b"));
+        assertNotNull(cache.load("c"));
+
+        // The entry just written is kept even if it alone is too large
+        MeowCache tiny = new MeowCache(directory, 1);
+        tiny.store("d", program);
+        assertNotNull(tiny.load("d"));
+        assertNull(tiny.load("a"));
+        assertNull(tiny.load("c"));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The StAX reader must give the same runs as POI, so that documents behave the same with either reader
+final class MeowStAXReaderTest {
+    private static final Path DOCUMENT = Path.of("demo/HelloWorld.docx");
+
+    // Pictures are arrays, so runs are compared with their pictures in hex
+    private static Object normalize(MeowRun run) {
+        return List.of(
+                new MeowRun(run.text(), run.italic(), run.bold(), run.underline(), run.color(),
+                        run.highlightColor(), run.font(), run.fontSize(), List.of()),
+                run.pictures().stream().map(HexFormat.of()::formatHex).toList());
+    }
+
+    private static List<List<Object>> readStAX(Path file) throws IOException {
+        var paragraphs = new ArrayList<List<Object>>();
+        MeowStAXReader.read(file, runs -> paragraphs.add(runs.stream().map(MeowStAXReaderTest::normalize).toList()));
+        return paragraphs;
+    }
+
+    private static List<List<Object>> readPOI(Path file) throws IOException {
+        var paragraphs = new ArrayList<List<Object>>();
+        try (InputStream input = Files.newInputStream(file)) {
+            MeowXWPFReader.read(input, runs -> paragraphs.add(runs.stream().map(MeowStAXReaderTest::normalize).toList()));
+        }
+        return paragraphs;
+    }
+
+    @Test
+    void parity() throws IOException {
+        List<List<Object>> expected = readPOI(DOCUMENT);
+        List<List<Object>> actual = readStAX(DOCUMENT);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i), "Paragraph " + i);
+        }
+    }
+}
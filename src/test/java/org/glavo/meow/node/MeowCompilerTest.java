@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.Meow;
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.MeowHighlight;
+import org.glavo.meow.MeowUnderline;
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.value.MeowArithmeticOperator;
+import org.glavo.meow.value.MeowBuiltinFunction;
+import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.value.MeowComparisonOperator;
+import org.glavo.meow.value.MeowIntegerValue;
+import org.glavo.meow.value.MeowLambda;
+import org.glavo.meow.value.MeowList;
+import org.glavo.meow.value.MeowValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.glavo.meow.MeowFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Defines the hidden classes for lambda bodies and runs them. Defining a class runs the verifier,
+// so every forward branch to a guard miss needs a matching stack map frame.
+final class MeowCompilerTest {
+    private static final MeowExpression NONE = new MeowExpressionList(List.of());
+
+    private final MeowContext context = newContext();
+    private final Meow self = symbol(0x3FFFFF);
+    private final Meow f = symbol(0x400000);
+    private final Meow g = symbol(0x400001);
+    private final Meow x = symbol(0x400002);
+    private final Meow y = symbol(0x400003);
+
+    @Test
+    void letInBody() {
+        // lambda x (let y (multiply x 2)) (add y (integer 1))
+        MeowLambda lambda = define(lambda(id(x),
+                let(y, call(MeowArithmeticOperator.MULTIPLY, id(x), integer(2))),
+                call(MeowArithmeticOperator.ADD, id(y), integer(1))));
+        warmUp(lambda, 3);
+
+        MeowContext frame = frame(lambda, 5);
+        assertEquals(MeowIntegerValue.of(11), compile(lambda).invoke(frame));
+        assertEquals(MeowIntegerValue.of(10), frame.getSlot(1));
+    }
+
+    @Test
+    void lambdaGuard() {
+        // lambda x (list (g x)), with g rebound to another lambda once compiled
+        context.evalParagraph(let(g, lambda(id(y), call(MeowArithmeticOperator.ADD, id(y), integer(1)))));
+        MeowLambda lambda = define(lambda(id(x), list(id(MeowBuiltinFunction.LIST.getMeow()), list(id(g), id(x)))));
+        warmUp(lambda, 3);
+        MeowCompiledCode code = compile(lambda);
+
+        assertEquals(MeowList.of(List.of(MeowIntegerValue.of(6))), code.invoke(frame(lambda, 5)));
+        context.evalParagraph(let(g, lambda(id(y), call(MeowArithmeticOperator.MULTIPLY, id(y), integer(10)))));
+        assertEquals(MeowList.of(List.of(MeowIntegerValue.of(50))), code.invoke(frame(lambda, 5)));
+    }
+
+    @Test
+    void functionGuard() {
+        // lambda x (list (g x)), with g bound to a builtin and then to a lambda
+        context.evalParagraph(let(g, id(MeowBuiltinFunction.LIST.getMeow())));
+        MeowLambda lambda = define(lambda(id(x), list(id(MeowBuiltinFunction.LIST.getMeow()), list(id(g), id(x)))));
+        warmUp(lambda, 3);
+        MeowCompiledCode code = compile(lambda);
+
+        MeowValue inner = MeowList.of(List.of(MeowIntegerValue.of(5)));
+        assertEquals(MeowList.of(List.of(inner)), code.invoke(frame(lambda, 5)));
+        context.evalParagraph(let(g, lambda(id(y), id(y))));
+        assertEquals(MeowList.of(List.of(MeowIntegerValue.of(5))), code.invoke(frame(lambda, 5)));
+    }
+
+    @Test
+    void constantGuard() {
+        // lambda x (list (f x)), with f bound to `integer` and then to `list`
+        Meow literal = Meow.of("meow", false, MeowUnderline.NONE, 0x808080, MeowHighlight.NONE, false, null, 7.0);
+        context.evalParagraph(let(f, id(MeowBuiltinMacro.INTEGER.getMeow())));
+        MeowLambda lambda = define(lambda(id(x), list(id(MeowBuiltinFunction.LIST.getMeow()), list(id(f), id(literal)))));
+        warmUp(lambda, 3);
+        MeowCompiledCode code = compile(lambda);
+
+        assertEquals(MeowList.of(List.of(MeowIntegerValue.of(7))), code.invoke(frame(lambda, 5)));
+        context.evalParagraph(let(f, id(MeowBuiltinFunction.LENGTH.getMeow())));
+        assertThrows(IllegalArgumentException.class, () -> code.invoke(frame(lambda, 5)));
+    }
+
+    @Test
+    void tailCall() {
+        // lambda x (g x), the call is left to the block that runs the compiled code
+        context.evalParagraph(let(g, lambda(id(y), call(MeowArithmeticOperator.ADD, id(y), integer(1)))));
+        MeowLambda target = (MeowLambda) context.getValue(g);
+        MeowLambda lambda = define(lambda(id(x), list(id(g), id(x))));
+        warmUp(lambda, 3);
+
+        MeowContext frame = frame(lambda, 5);
+        assertSame(MeowContext.TAIL_CALL, compile(lambda).invoke(frame));
+        assertSame(target, frame.takeTailCallTarget());
+        assertEquals(MeowIntegerValue.of(5), frame.takeTailCallSlots()[0]);
+        assertNull(frame.takeTailCallTarget());
+    }
+
+    @Test
+    void tailRecursion() {
+        // let f (lambda x y (((less x 1) (lambda () (f (subtract x 1) (add y x))) (lambda () y))))
+        context.evalParagraph(let(f, lambda(list(id(x), id(y)), list(list(
+                call(MeowComparisonOperator.LESS, id(x), integer(1)),
+                lambda(NONE, list(id(f), call(MeowArithmeticOperator.SUBTRACT, id(x), integer(1)),
+                        call(MeowArithmeticOperator.ADD, id(y), id(x)))),
+                lambda(NONE, id(y)))))));
+        MeowLambda lambda = (MeowLambda) context.getValue(f);
+
+        // Far more iterations than the compile threshold, and than the stack could hold
+        int n = Math.max(100_000, MeowCompiler.THRESHOLD * 4);
+        MeowValue result = lambda.applyValues(context, List.of(MeowIntegerValue.of(n), MeowIntegerValue.of(0)));
+        assertEquals(MeowIntegerValue.of((long) n * (n + 1) / 2), result);
+    }
+
+    private MeowLambda define(MeowExpression lambda) {
+        context.evalParagraph(let(self, lambda));
+        return (MeowLambda) context.getValue(self);
+    }
+
+    // Runs the body in the interpreter, so that its call sites specialize
+    private void warmUp(MeowLambda lambda, int times) {
+        for (int i = 0; i < times; i++) {
+            lambda.code().call(frame(lambda, i));
+        }
+    }
+
+    private static MeowCompiledCode compile(MeowLambda lambda) {
+        MeowCompiledCode code = MeowCompiler.compile(lambda.code());
+        assertNotNull(code, "Failed to define the compiled class");
+        return code;
+    }
+
+    private static MeowContext frame(MeowLambda lambda, long argument) {
+        MeowValue[] slots = new MeowValue[lambda.scope().size()];
+        slots[0] = MeowIntegerValue.of(argument);
+        return new MeowContext(lambda.declarationContext(), lambda.scope(), slots);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.node;
+
+import org.glavo.meow.MeowContext;
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.value.MeowIntegerValue;
+import org.glavo.meow.value.MeowValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.glavo.meow.MeowFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs forked arguments directly, whether or not this machine has enough processors to enable MeowParallel
+final class MeowParallelTest {
+    private final MeowContext context = new MeowContext(MeowContext.ROOT);
+
+    // (f 0) (f 1) ..., each argument calls a lambda, so every one is heavy
+    private static MeowParallel site(int count) {
+        MeowExpression f = id(symbol(0x400000));
+        MeowExpression[] arguments = new MeowExpression[count];
+        for (int i = 0; i < count; i++) {
+            arguments[i] = list(f, f);
+        }
+        MeowParallel site = MeowParallel.of(List.of(arguments));
+        assertNotNull(site);
+        return site;
+    }
+
+    private static final class ArgumentNode extends MeowNode {
+        final AtomicInteger runs = new AtomicInteger();
+        final IntFunction<MeowValue> body;
+
+        ArgumentNode(IntFunction<MeowValue> body) {
+            this.body = body;
+        }
+
+        @Override
+        public MeowValue execute(MeowContext context) {
+            return body.apply(runs.incrementAndGet());
+        }
+    }
+
+    private static ArgumentNode constant(long value) {
+        return new ArgumentNode(run -> MeowIntegerValue.of(value));
+    }
+
+    @Test
+    void evaluate() {
+        ArgumentNode[] arguments = {constant(1), constant(2), constant(3)};
+        MeowValue[] values = new MeowValue[3];
+        assertEquals(3, site(3).evaluate(context, arguments, values));
+        assertArrayEquals(new MeowValue[]{MeowIntegerValue.of(1), MeowIntegerValue.of(2), MeowIntegerValue.of(3)}, values);
+        for (ArgumentNode argument : arguments) {
+            assertEquals(1, argument.runs.get());
+        }
+    }
+
+    @Test
+    void keepValuesBeforeEffect() {
+        ArgumentNode effect = new ArgumentNode(run -> {
+            MeowParallel.checkEffect();
+            return MeowIntegerValue.of(run);
+        });
+        ArgumentNode[] arguments = {constant(1), constant(2), effect, constant(4)};
+        MeowValue[] values = new MeowValue[4];
+        MeowParallel site = site(4);
+
+        // The caller evaluates the arguments from the one that reached the effect
+        assertEquals(2, site.evaluate(context, arguments, values));
+        assertEquals(MeowIntegerValue.of(1), values[0]);
+        assertEquals(MeowIntegerValue.of(2), values[1]);
+
+        // And from then on all of them
+        assertEquals(0, site.evaluate(context, arguments, values));
+        assertEquals(1, arguments[0].runs.get());
+        assertEquals(1, arguments[1].runs.get());
+    }
+
+    @Test
+    void leftmostFailure() {
+        ArgumentNode[] arguments = {
+                constant(1),
+                new ArgumentNode(run -> {
+                    throw new IllegalArgumentException("first");
+                }),
+                new ArgumentNode(run -> {
+                    throw new IllegalStateException("second");
+                })
+        };
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> site(3).evaluate(context, arguments, new MeowValue[3]));
+        assertEquals("first", e.getMessage());
+    }
+
+    @Test
+    void effectBeforeFailure() {
+        // In order, the effect comes first, so the caller evaluates the arguments from there and sees the failure
+        ArgumentNode[] arguments = {
+                constant(1),
+                new ArgumentNode(run -> {
+                    MeowParallel.checkEffect();
+                    return MeowIntegerValue.of(run);
+                }),
+                new ArgumentNode(run -> {
+                    throw new IllegalArgumentException("failure");
+                })
+        };
+        assertEquals(1, site(3).evaluate(context, arguments, new MeowValue[3]));
+    }
+}
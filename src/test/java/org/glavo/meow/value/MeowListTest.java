@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class MeowListTest {
+
+    private static MeowValue value(long value) {
+        return MeowIntegerValue.of(value);
+    }
+
+    private static MeowList range(int start, int end) {
+        MeowList list = MeowList.EMPTY;
+        for (int i = start; i < end; i++) {
+            list = list.append(value(i));
+        }
+        return list;
+    }
+
+    private static List<MeowValue> toList(MeowList list) {
+        List<MeowValue> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            result.add(list.get(i));
+        }
+        return result;
+    }
+
+    private static Object storageOf(MeowList list) {
+        try {
+            Field field = MeowList.class.getDeclaredField("storage");
+            field.setAccessible(true);
+            return field.get(list);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    void appendInPlace() {
+        MeowList list = range(0, 1000);
+        assertEquals(1000, list.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(value(i), list.get(i));
+        }
+
+        // Appending to the newest list fills the spare capacity of the shared storage
+        MeowList longer = list.append(value(1000));
+        MeowList longest = longer.append(value(1001));
+        assertSame(storageOf(longer), storageOf(longest));
+        assertEquals(1000, list.size());
+        assertEquals(1002, longest.size());
+    }
+
+    @Test
+    void appendToOlderList() {
+        // Only one list may extend into a slot, the others copy
+        MeowList base = range(0, 3);
+        MeowList first = base.append(value(10));
+        MeowList second = base.append(value(20));
+        MeowList third = first.slice(0, 3).append(value(30));
+
+        assertEquals(List.of(value(0), value(1), value(2)), toList(base));
+        assertEquals(List.of(value(0), value(1), value(2), value(10)), toList(first));
+        assertEquals(List.of(value(0), value(1), value(2), value(20)), toList(second));
+        assertEquals(List.of(value(0), value(1), value(2), value(30)), toList(third));
+        assertNotSame(storageOf(first), storageOf(second));
+        assertNotSame(storageOf(first), storageOf(third));
+    }
+
+    @Test
+    void appendConcurrently() throws InterruptedException {
+        MeowList base = range(0, 16);
+        ConcurrentLinkedQueue<MeowList> results = new ConcurrentLinkedQueue<>();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long element = 100 + t;
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    results.add(base.append(value(element)));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (MeowList result : results) {
+            assertEquals(17, result.size());
+            assertEquals(base, result.slice(0, 16));
+        }
+        for (int t = 0; t < threads.length; t++) {
+            long element = 100 + t;
+            assertEquals(1000, results.stream().filter(it -> it.get(16).equals(value(element))).count());
+        }
+    }
+
+    @Test
+    void mixedElements() {
+        MeowText meow = MeowText.of("meow");
+        MeowList texts = MeowList.EMPTY.append(meow).append(MeowText.of("purr"));
+        MeowList mixed = texts.append(value(1));
+        MeowList integers = range(0, 2).append(meow);
+
+        assertSame(meow, texts.get(0));
+        assertEquals(3, mixed.size());
+        assertEquals(value(1), mixed.get(2));
+        assertSame(meow, mixed.get(0));
+        assertEquals(List.of(value(0), value(1), meow), toList(integers));
+
+        assertEquals(MeowList.of(List.of(value(0), value(1), meow)), integers);
+        assertEquals(range(0, 5), MeowList.of(List.of(value(0), value(1), value(2), value(3), value(4))));
+        assertEquals(range(0, 5).hashCode(), MeowList.of(toList(range(0, 5))).hashCode());
+    }
+
+    @Test
+    void slice() {
+        MeowList list = range(0, 100);
+        MeowList slice = list.slice(10, 60);
+        assertEquals(50, slice.size());
+        assertEquals(value(10), slice.get(0));
+        assertEquals(value(59), slice.get(49));
+        assertEquals(range(10, 60), slice);
+
+        MeowList inner = slice.slice(5, 15);
+        assertEquals(range(15, 25), inner);
+        assertSame(storageOf(list), storageOf(inner));
+
+        // A slice in the middle copies on append, and never writes over the elements after it
+        MeowList appended = inner.append(value(-1));
+        assertEquals(value(-1), appended.get(10));
+        assertEquals(value(25), list.get(25));
+
+        assertSame(MeowList.EMPTY, list.slice(30, 30));
+        assertSame(MeowList.EMPTY, MeowList.of(List.of()));
+        assertEquals(list, list.slice(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> list.slice(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> list.slice(10, 101));
+        assertThrows(IllegalArgumentException.class, () -> list.slice(20, 10));
+        assertThrows(IllegalArgumentException.class, () -> slice.get(50));
+        assertThrows(IllegalArgumentException.class, () -> slice.get(-1));
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class MeowMapTest {
+
+    private static MeowValue value(long value) {
+        return MeowIntegerValue.of(value);
+    }
+
+    // "Aa" and "BB" have the same hash code, so do all strings made of them with the same length
+    private static List<String> collidingKeys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder builder = new StringBuilder();
+            for (int bit = 0; bit < 8; bit++) {
+                builder.append((i & (1 << bit)) != 0 ? "BB" : "Aa");
+            }
+            keys.add(builder.toString());
+        }
+        return keys;
+    }
+
+    private static Map<Object, MeowValue> toHashMap(MeowMap map) {
+        Map<Object, MeowValue> result = new HashMap<>();
+        map.forEach((key, value) -> assertNull(result.put(key, value), "Duplicate key " + key));
+        return result;
+    }
+
+    private static void assertContent(Map<Object, MeowValue> expected, MeowMap map) {
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, toHashMap(map));
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+    }
+
+    @Test
+    void assoc() {
+        MeowMap map = MeowMap.EMPTY;
+        Map<Object, MeowValue> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            map = map.assoc("key" + i, value(i));
+            expected.put("key" + i, value(i));
+        }
+        assertContent(expected, map);
+        assertNull(map.get("key5000"));
+
+        MeowMap replaced = map.assoc("key42", value(-1));
+        assertEquals(map.size(), replaced.size());
+        assertEquals(value(-1), replaced.get("key42"));
+        assertEquals(value(42), map.get("key42"));
+
+        MeowValue same = map.get("key7");
+        assertSame(map, map.assoc("key7", same));
+    }
+
+    @Test
+    void dissoc() {
+        MeowMap map = MeowMap.EMPTY;
+        Map<Object, MeowValue> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            map = map.assoc(value(i), value(i));
+            expected.put(value(i), value(i));
+        }
+
+        MeowMap full = map;
+        for (int i = 0; i < 2000; i += 3) {
+            map = map.dissoc(value(i));
+            expected.remove(value(i));
+        }
+        assertContent(expected, map);
+        assertEquals(2000, full.size());
+        assertEquals(value(0), full.get(value(0)));
+
+        assertSame(map, map.dissoc(value(0)));
+        assertSame(map, map.dissoc("missing"));
+        for (Object key : expected.keySet()) {
+            map = map.dissoc(key);
+        }
+        assertEquals(0, map.size());
+        assertNull(map.get(value(1)));
+        assertEquals(MeowMap.EMPTY, map);
+    }
+
+    @Test
+    void collisions() {
+        List<String> keys = collidingKeys(20);
+        assertEquals(keys.getFirst().hashCode(), keys.getLast().hashCode());
+
+        MeowMap map = MeowMap.EMPTY.assoc("other", value(-1));
+        Map<Object, MeowValue> expected = new HashMap<>(Map.of("other", value(-1)));
+        for (int i = 0; i < keys.size(); i++) {
+            map = map.assoc(keys.get(i), value(i));
+            expected.put(keys.get(i), value(i));
+        }
+        assertContent(expected, map);
+
+        MeowMap replaced = map.assoc(keys.get(5), value(500));
+        assertEquals(value(500), replaced.get(keys.get(5)));
+        assertEquals(value(5), map.get(keys.get(5)));
+
+        for (int i = 0; i < keys.size(); i += 2) {
+            map = map.dissoc(keys.get(i));
+            expected.remove(keys.get(i));
+        }
+        assertContent(expected, map);
+        for (int i = 1; i < keys.size(); i += 2) {
+            map = map.dissoc(keys.get(i));
+        }
+        assertEquals(MeowMap.EMPTY.assoc("other", value(-1)), map);
+
+        // A collision node split by a key with a different hash
+        MeowMap split = MeowMap.EMPTY.assoc("Aa", value(1)).assoc("BB", value(2)).assoc("C#", value(3));
+        assertEquals(Map.of("Aa", value(1), "BB", value(2), "C#", value(3)), toHashMap(split));
+    }
+
+    @Test
+    void builder() {
+        Random random = new Random(0);
+        MeowMap.Builder builder = new MeowMap.Builder();
+        Map<Object, MeowValue> expected = new HashMap<>();
+        List<String> colliding = collidingKeys(8);
+        for (int i = 0; i < 10000; i++) {
+            Object key = random.nextInt(4) == 0
+                    ? colliding.get(random.nextInt(colliding.size()))
+                    : value(random.nextInt(3000));
+            if (random.nextInt(3) == 0) {
+                builder.remove(key);
+                expected.remove(key);
+            } else {
+                builder.put(key, value(i));
+                expected.put(key, value(i));
+            }
+        }
+        MeowMap map = builder.build();
+        assertContent(expected, map);
+
+        assertThrows(IllegalStateException.class, () -> builder.put("key", value(0)));
+        assertThrows(IllegalStateException.class, () -> builder.remove("key"));
+        assertThrows(IllegalStateException.class, builder::build);
+        assertSame(MeowMap.EMPTY, new MeowMap.Builder().put("key", value(0)).remove("key").build());
+    }
+
+    @Test
+    void ownership() {
+        // Nodes of a built map, or of another builder, are copied instead of mutated
+        MeowMap.Builder first = new MeowMap.Builder();
+        for (int i = 0; i < 1000; i++) {
+            first.put(value(i), value(i));
+        }
+        for (String key : collidingKeys(4)) {
+            first.put(key, value(0));
+        }
+        MeowMap built = first.build();
+        Map<Object, MeowValue> expected = toHashMap(built);
+
+        MeowMap.Builder second = new MeowMap.Builder(built);
+        MeowMap.Builder third = new MeowMap.Builder(built);
+        for (int i = 0; i < 1000; i += 2) {
+            second.put(value(i), value(-i));
+            third.remove(value(i));
+        }
+        for (String key : collidingKeys(4)) {
+            second.put(key, value(1));
+            third.remove(key);
+        }
+        MeowMap updated = second.build();
+        MeowMap removed = third.build();
+
+        assertContent(expected, built);
+        assertEquals(value(-2), updated.get(value(2)));
+        assertEquals(value(1), updated.get(collidingKeys(4).getFirst()));
+        assertEquals(1004, updated.size());
+        assertEquals(500, removed.size());
+        assertNull(removed.get(value(2)));
+        assertEquals(value(3), removed.get(value(3)));
+
+        // Persistent updates of a built map leave it unchanged as well
+        MeowMap assoc = built.assoc(value(1), value(-1));
+        assertEquals(value(1), built.get(value(1)));
+        assertEquals(value(-1), assoc.get(value(1)));
+        assertContent(expected, built);
+    }
+}
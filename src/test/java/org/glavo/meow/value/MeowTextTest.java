@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow.value;
+
+import org.glavo.meow.MeowHighlight;
+import org.glavo.meow.MeowStyle;
+import org.glavo.meow.MeowUnderline;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class MeowTextTest {
+    private static final MeowStyle BOLD = MeowStyle.of(false, true, MeowUnderline.NONE, 0, MeowHighlight.NONE, null, null);
+
+    // Longer than the merge threshold, so every chunk stays a leaf of its own
+    private static String chunk(int i) {
+        return String.valueOf((char) ('a' + i % 26)).repeat(300 + i % 7);
+    }
+
+    // An AVL tree with n leaves is at most about 1.44 log2(n) deep
+    private static void assertBalanced(MeowText text, int leaves) {
+        int bound = (int) Math.ceil(1.45 * (Math.log(leaves + 2) / Math.log(2)));
+        assertTrue(text.depth() <= bound, "depth=" + text.depth() + ", leaves=" + leaves);
+    }
+
+    private static List<String> spans(MeowText text) {
+        List<String> result = new ArrayList<>();
+        text.forEachSpan((chars, style, pictures) ->
+                result.add((style == BOLD ? "*" : "") + chars + "#".repeat(pictures.size())));
+        return result;
+    }
+
+    @Test
+    void append() {
+        MeowText text = MeowText.of("");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text = text.concat(MeowText.of(chunk(i)));
+            expected.append(chunk(i));
+            assertBalanced(text, i + 1);
+        }
+        assertEquals(expected.length(), text.length());
+        assertEquals(expected.toString(), text.toDisplayString(null));
+    }
+
+    @Test
+    void prepend() {
+        MeowText text = MeowText.of("");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text = MeowText.of(chunk(i)).concat(text);
+            expected.insert(0, chunk(i));
+            assertBalanced(text, i + 1);
+        }
+        assertEquals(expected.toString(), text.toDisplayString(null));
+    }
+
+    @Test
+    void appendSmall() {
+        // Small pieces extend the last leaf instead of adding a level each
+        MeowText text = MeowText.of("");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            String piece = Integer.toString(i);
+            text = text.concat(MeowText.of(piece));
+            expected.append(piece);
+        }
+        assertBalanced(text, expected.length() / 128);
+        assertEquals(expected.toString(), text.toDisplayString(null));
+    }
+
+    @Test
+    void joinUneven() {
+        // Joins ropes of very different depths on both sides
+        MeowText big = MeowText.of("");
+        for (int i = 0; i < 512; i++) {
+            big = big.concat(MeowText.of(chunk(i)));
+        }
+        MeowText small = MeowText.of(chunk(1)).concat(MeowText.of(chunk(2))).concat(MeowText.of(chunk(3)));
+        String expected = big.toDisplayString(null) + small.toDisplayString(null);
+
+        assertEquals(expected, big.concat(small).toDisplayString(null));
+        assertBalanced(big.concat(small), 515);
+        assertEquals(small.toDisplayString(null) + big.toDisplayString(null), small.concat(big).toDisplayString(null));
+        assertBalanced(small.concat(big), 515);
+        assertBalanced(big.concat(big), 1024);
+    }
+
+    @Test
+    void slice() {
+        MeowText text = MeowText.of("");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            text = text.concat(MeowText.of(chunk(i)));
+            builder.append(chunk(i));
+        }
+        String expected = builder.toString();
+
+        Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            int start = random.nextInt(expected.length() + 1);
+            int end = start + random.nextInt(expected.length() - start + 1);
+            MeowText slice = text.slice(start, end);
+            assertEquals(end - start, slice.length());
+            assertBalanced(slice, 64);
+            assertEquals(expected.substring(start, end), slice.toDisplayString(null));
+        }
+        assertSame(text, text.slice(0, text.length()));
+        assertThrows(IllegalArgumentException.class, () -> MeowText.of("meow").slice(2, 5));
+        assertThrows(IllegalArgumentException.class, () -> MeowText.of("meow").slice(3, 2));
+    }
+
+    @Test
+    void sliceShares() {
+        // Slicing a long text keeps the subtrees inside the range instead of copying them into one leaf
+        MeowText text = MeowText.of("");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            text = text.concat(MeowText.of(chunk(i)));
+            builder.append(chunk(i));
+        }
+        int start = builder.length() / 3 + 1;
+        int end = builder.length() - 7;
+        MeowText slice = text.slice(start, end);
+        assertTrue(slice.depth() > 0);
+        assertBalanced(slice, 4096);
+        assertEquals(builder.substring(start, end), slice.toDisplayString(null));
+        assertEquals(builder.substring(start + 100, end - 100), slice.slice(100, slice.length() - 100).toDisplayString(null));
+    }
+
+    @Test
+    void sliceBuiltin() {
+        MeowText text = MeowText.of("meow").concat(MeowText.of(chunk(0)));
+        MeowValue slice = MeowBuiltinFunction.SLICE.applyValues(null, List.of(text, MeowIntegerValue.of(1), MeowIntegerValue.of(3)));
+        assertEquals("eo", slice.toDisplayString(null));
+        MeowValue rest = MeowBuiltinFunction.SLICE.applyValues(null, List.of(text, MeowIntegerValue.of(4)));
+        assertEquals(chunk(0), rest.toDisplayString(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> MeowBuiltinFunction.SLICE.applyValues(null, List.of(text, MeowIntegerValue.of(400))));
+    }
+
+    @Test
+    void styles() {
+        byte[] picture = new byte[]{1};
+        MeowText text = new MeowText.Builder()
+                .append("me", MeowStyle.PLAIN, List.of())
+                .append("ow", MeowStyle.PLAIN, List.of())
+                .append("MEOW", BOLD, List.of(picture))
+                .append("!", BOLD, List.of())
+                .build();
+
+        // Runs with the same style are merged, but never into a span with pictures
+        assertEquals(List.of("meow", "*MEOW#", "*!"), spans(text));
+        assertEquals(List.of("meow", "*MEOW#", "*!"), spans(text.concat(MeowText.of(""))));
+        assertEquals(List.of("ow", "*ME"), spans(text.slice(2, 6)));
+        assertEquals(List.of("*OW#", "*!"), spans(text.slice(6, 9)));
+
+        // Styles survive concatenation across leaves
+        MeowText long1 = MeowText.of(chunk(0));
+        MeowText joined = long1.concat(text).concat(MeowText.of(chunk(1)));
+        assertEquals(List.of(chunk(0) + "meow", "*MEOW#", "*!", chunk(1)), spans(joined));
+
+        // Slices of the rope have the same spans as slices of the flat text
+        MeowText rope = joined;
+        for (int i = 0; i < 8; i++) {
+            rope = rope.concat(i % 2 == 0 ? text : MeowText.of(chunk(i)));
+        }
+        MeowText flat = new MeowText.Builder().append(rope).build();
+        Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            int start = random.nextInt(rope.length() + 1);
+            int end = start + random.nextInt(rope.length() - start + 1);
+            assertEquals(spans(flat.slice(start, end)), spans(rope.slice(start, end)), "[" + start + ", " + end + ")");
+        }
+    }
+}
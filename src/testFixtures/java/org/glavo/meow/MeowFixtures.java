@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2025 Glavo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.glavo.meow;
+
+import org.glavo.meow.ast.MeowExpression;
+import org.glavo.meow.ast.MeowExpressionList;
+import org.glavo.meow.ast.MeowIdentifier;
+import org.glavo.meow.value.MeowBuiltinMacro;
+import org.glavo.meow.value.MeowOperator;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+// Builds contexts and programs without documents, for the tests and the benchmarks
+public final class MeowFixtures {
+    // Output is rendered as usual, and then dropped
+    public static MeowContext newContext() {
+        try {
+            Terminal terminal = TerminalBuilder.builder()
+                    .system(false)
+                    .dumb(true)
+                    .streams(InputStream.nullInputStream(), OutputStream.nullOutputStream())
+                    .build();
+            return new MeowContext(terminal, MeowOutput.direct(terminal.writer()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Meow symbol(int color) {
+        return Meow.of("meow", false, MeowUnderline.NONE, color, MeowHighlight.NONE, false, null, 12.0);
+    }
+
+    public static MeowExpression id(Meow meow) {
+        return new MeowIdentifier(meow);
+    }
+
+    public static MeowExpression list(MeowExpression... nodes) {
+        return new MeowExpressionList(List.of(nodes));
+    }
+
+    public static MeowExpression call(MeowOperator operator, MeowExpression... args) {
+        MeowExpression[] nodes = new MeowExpression[args.length + 1];
+        nodes[0] = id(operator.getMeow());
+        System.arraycopy(args, 0, nodes, 1, args.length);
+        return list(nodes);
+    }
+
+    public static MeowExpression integer(int value) {
+        Meow literal = Meow.of("meow", false, MeowUnderline.NONE, 0x808080, MeowHighlight.NONE, false, null, (double) value);
+        return list(id(MeowBuiltinMacro.INTEGER.getMeow()), id(literal));
+    }
+
+    public static MeowExpression let(Meow name, MeowExpression value) {
+        return list(id(MeowBuiltinMacro.LET.getMeow()), id(name), value);
+    }
+
+    public static MeowExpression lambda(MeowExpression parameters, MeowExpression... body) {
+        MeowExpression[] nodes = new MeowExpression[body.length + 2];
+        nodes[0] = id(MeowBuiltinMacro.LAMBDA.getMeow());
+        nodes[1] = parameters;
+        System.arraycopy(body, 0, nodes, 2, body.length);
+        return list(nodes);
+    }
+
+    private MeowFixtures() {
+    }
+}